@@ -1,8 +1,16 @@
 package com.yann.forcesub.configuration;
 
+import com.yann.forcesub.handler.ActiveHandler;
+import com.yann.forcesub.handler.BackfillHandler;
+import com.yann.forcesub.handler.BatchHandler;
+import com.yann.forcesub.handler.DeliveriesHandler;
 import com.yann.forcesub.handler.GenericTypeMessage;
 import com.yann.forcesub.handler.StartHandler;
+import com.yann.forcesub.handler.StatsHandler;
+import com.yann.forcesub.handler.TopHandler;
+import com.yann.forcesub.handler.ReadyHandler;
 import com.yann.forcesub.manager.CallbackDispatcher;
+import com.yann.forcesub.service.ReadinessGate;
 import it.tdlight.Log;
 import it.tdlight.Slf4JLogMessageHandler;
 import it.tdlight.client.*;
@@ -55,15 +63,33 @@ public class BotConfiguration {
     @Bean
     public SimpleTelegramClient client(TDLibSettings settings,
                                        AuthenticationSupplier<?> authenticationSupplier,
+                                       ReadinessGate readinessGate,
                                        @Lazy StartHandler startHandler,
                                        @Lazy CallbackDispatcher callbackDispatcher,
-                                       @Lazy GenericTypeMessage genericTypeMessage) {
+                                       @Lazy GenericTypeMessage genericTypeMessage,
+                                       @Lazy BatchHandler batchHandler,
+                                       @Lazy BackfillHandler backfillHandler,
+                                       @Lazy TopHandler topHandler,
+                                       @Lazy ReadyHandler readyHandler,
+                                       @Lazy DeliveriesHandler deliveriesHandler,
+                                       @Lazy ActiveHandler activeHandler,
+                                       @Lazy StatsHandler statsHandler) {
         SimpleTelegramClientFactory factory = new SimpleTelegramClientFactory();
         SimpleTelegramClientBuilder builder = factory.builder(settings);
 
-        builder.addCommandHandler("start", startHandler::onCommand);
-        builder.addUpdateHandler(TdApi.UpdateNewCallbackQuery.class, callbackDispatcher::onCallbackQuery);
-        builder.addUpdateHandler(TdApi.UpdateNewMessage.class, genericTypeMessage::handle);
+        // semua update ditahan sampai cache selesai dimuat (lihat WarmupService)
+        builder.addCommandHandler("start", readinessGate.gate(startHandler::onCommand));
+        builder.addCommandHandler("batch", readinessGate.gate(batchHandler::onCommand));
+        builder.addCommandHandler("backfill", readinessGate.gate(backfillHandler::onCommand));
+        builder.addCommandHandler("top", readinessGate.gate(topHandler::onCommand));
+        builder.addCommandHandler("ready", readyHandler::onCommand);
+        builder.addCommandHandler("deliveries", readinessGate.gate(deliveriesHandler::onCommand));
+        builder.addCommandHandler("active", readinessGate.gate(activeHandler::onCommand));
+        builder.addCommandHandler("stats", readinessGate.gate(statsHandler::onCommand));
+        builder.addUpdateHandler(TdApi.UpdateNewCallbackQuery.class, readinessGate.gate(callbackDispatcher::onCallbackQuery));
+        builder.addUpdateHandler(TdApi.UpdateNewMessage.class, readinessGate.gate(genericTypeMessage::handle));
+        builder.addUpdateHandler(TdApi.UpdateMessageContent.class, readinessGate.gate(genericTypeMessage::handleContentUpdate));
+        builder.addUpdateHandler(TdApi.UpdateDeleteMessages.class, readinessGate.gate(genericTypeMessage::handleDeleteMessages));
 
         return builder.build(authenticationSupplier);
     }
@@ -0,0 +1,15 @@
+package com.yann.forcesub.configuration;
+
+import com.yann.forcesub.repository.convert.EntityConverters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+@Configuration
+public class MongoConfiguration {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(EntityConverters.converters());
+    }
+}
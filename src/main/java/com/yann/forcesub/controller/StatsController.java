@@ -0,0 +1,50 @@
+package com.yann.forcesub.controller;
+
+import com.yann.forcesub.service.StatisticsService;
+import com.yann.forcesub.service.StatisticsService.Statistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * {@code GET /api/stats}: counter yang sama dengan {@code /stats}. Request harus membawa
+ * {@code Authorization: Bearer <token>}; selama {@code forcesub.stats.api.token} kosong endpoint dinonaktifkan (404).
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private static final String BEARER = "Bearer ";
+
+    private final StatisticsService statisticsService;
+
+    @Value("${forcesub.stats.api.token:}")
+    private String apiToken;
+
+    @GetMapping("/api/stats")
+    public Mono<Statistics> stats(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (apiToken == null || apiToken.isBlank()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        }
+        if (!authorized(authorization)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        }
+        return Mono.fromSupplier(statisticsService::snapshot);
+    }
+
+    private boolean authorized(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER)) return false;
+        return MessageDigest.isEqual(
+                apiToken.getBytes(StandardCharsets.UTF_8),
+                authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8));
+    }
+}
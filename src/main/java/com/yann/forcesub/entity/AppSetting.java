@@ -7,12 +7,18 @@ import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 @Document(collection = "settings")
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class AppSetting {
+public class AppSetting implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     @Id
     private String key;
@@ -7,12 +7,18 @@ import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 @Document(collection = "channels")
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class Channel {
+public class Channel implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     @Id
     private Long id;
@@ -0,0 +1,57 @@
+package com.yann.forcesub.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Satu percobaan pengiriman link ke user. Disimpan di koleksi time-series (meta = channelId) dan
+ * ditulis per batch oleh {@code DeliveryLogService}.
+ */
+@TimeSeries(collection = "deliveries", timeField = "timestamp", metaField = "channelId", granularity = Granularity.SECONDS)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DeliveryEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public enum Outcome {
+        DELIVERED,
+        // semua pesan sumber sudah dihapus
+        REMOVED,
+        NOT_SUBSCRIBED,
+        // kedaluwarsa, kuota habis, atau link mati
+        REJECTED,
+        // sebagian pesan gagal terkirim (messageCount = yang terkirim)
+        PARTIAL,
+        // tidak ada pesan yang terkirim, mis. user memblokir bot
+        FAILED
+    }
+
+    @Id
+    private String id;
+
+    private Instant timestamp;
+
+    // null untuk link format lama yang di-decode langsung ke range
+    private String token;
+
+    private Long channelId;
+
+    private long userId;
+
+    private int messageCount;
+
+    private long latencyMs;
+
+    private Outcome outcome;
+}
@@ -5,6 +5,8 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.time.Instant;
 import java.util.List;
 
@@ -14,7 +16,10 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class Message {
+public class Message implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     @Id
     private String id;
@@ -23,12 +28,41 @@ public class Message {
 
     private List<Long> messageIds;
 
+    // null untuk link lama atau konten yang tidak didukung; delivery kembali ke forward
+    private List<StoredContent> contents;
+
     @Builder.Default
     private boolean contentRestricted = true;
 
     @Builder.Default
     private Integer viewCount = 0;
 
+    // file remote.uniqueId atau (channelId, messageId) konten sumber, unik (sparse) untuk deduplikasi;
+    // index-nya dibuat oleh MessageRepositoryCustom.ensureIndexes
+    private String contentKey;
+
+    // true jika messageIds sudah dicek keberadaannya saat link dibuat (lihat /batch)
+    @Builder.Default
+    private boolean validated = false;
+
+    // semua pesan sumber sudah dihapus dari channel database
+    private boolean dead;
+
+    // null = tidak kedaluwarsa; dokumen dihapus TTL index (expireAfter 0) setelah waktu ini
+    private Instant expiresAt;
+
+    // null = tanpa batas; jumlah pengambilan dihitung lewat viewCount
+    private Integer maxUses;
+
     @CreatedDate
     private Instant createdAt;
+
+    // TTL monitor Mongo berjalan per menit, jadi waktu kedaluwarsa tetap dicek di aplikasi
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    public boolean isExhausted() {
+        return maxUses != null && viewCount != null && viewCount >= maxUses;
+    }
 }
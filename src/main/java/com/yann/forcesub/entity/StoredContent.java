@@ -0,0 +1,49 @@
+package com.yann.forcesub.entity;
+
+import lombok.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Salinan isi pesan sumber (file id remote, caption, entity) agar delivery bisa memakai
+ * {@code SendMessage}/{@code SendMessageAlbum} tanpa membaca channel database.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StoredContent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private Long messageId;
+
+    private long mediaAlbumId;
+
+    private String type;
+
+    private String fileId;
+
+    private String text;
+
+    private List<Span> entities;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Span implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private int offset;
+        private int length;
+        private String type;
+        private String url;
+    }
+}
@@ -0,0 +1,16 @@
+package com.yann.forcesub.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+@Getter
+public class LinkViewEvent extends ApplicationEvent {
+    private final String token;
+    private final long viewCount;
+
+    public LinkViewEvent(Object source, String token, long viewCount) {
+        super(source);
+        this.token = token;
+        this.viewCount = viewCount;
+    }
+}
@@ -0,0 +1,10 @@
+package com.yann.forcesub.exceptions;
+
+/**
+ * Link tidak bisa dikirim (kedaluwarsa, kuota habis, atau sudah tidak ada). Message berisi key teks i18n.
+ */
+public class LinkUnavailableException extends RuntimeException {
+    public LinkUnavailableException(String textKey) {
+        super(textKey);
+    }
+}
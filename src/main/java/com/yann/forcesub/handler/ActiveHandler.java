@@ -0,0 +1,72 @@
+package com.yann.forcesub.handler;
+
+import com.yann.forcesub.service.ActiveUserService;
+import com.yann.forcesub.service.AdminService;
+import com.yann.forcesub.service.ChannelService;
+import com.yann.forcesub.service.TextService;
+import com.yann.forcesub.service.UserService;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import it.tdlight.client.CommandHandler;
+import it.tdlight.jni.TdApi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.regex.Pattern;
+
+/**
+ * {@code /active}: estimasi DAU/WAU/MAU dari HyperLogLog; {@code /active <token>}: pengunjung unik satu link.
+ * Tidak ada count ke Mongo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActiveHandler implements CommandHandler {
+
+    private static final Pattern TOKEN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final AdminService adminService;
+    private final ActiveUserService activeUserService;
+    private final UserService userService;
+    private final ChannelService channelService;
+    private final MessageTextSender messageTextSender;
+    private final TextService textService;
+
+    @Override
+    public void onCommand(TdApi.Chat chat, TdApi.MessageSender commandSender, String arguments) {
+        String token = arguments == null ? "" : arguments.trim();
+
+        adminService.isAdmin(chat.id)
+                .filter(isAdmin -> {
+                    if (!isAdmin) {
+                        messageTextSender.send(textService.get("common.unauthorized"), chat.id);
+                    }
+                    return isAdmin;
+                })
+                .flatMap(isAdmin -> token.isEmpty() ? summary() : linkVisitors(token))
+                .subscribe(
+                        text -> messageTextSender.send(text, chat.id),
+                        error -> log.error("Error handling active command", error)
+                );
+    }
+
+    private Mono<String> summary() {
+        return activeUserService.activeUsers()
+                .map(active -> "👥 <b>User Aktif</b> (estimasi)\n\n" +
+                        "Hari ini: <b>" + active.daily() + "</b>\n" +
+                        "7 hari: <b>" + active.weekly() + "</b>\n" +
+                        "30 hari: <b>" + active.monthly() + "</b>\n\n" +
+                        "Total user: <b>" + userService.knownUsers() + "</b>\n" +
+                        "Channel aktif: <b>" + channelService.activeChannels().size() + "</b>");
+    }
+
+    private Mono<String> linkVisitors(String token) {
+        if (!TOKEN.matcher(token).matches()) {
+            return Mono.just(textService.get("common.invalidLink"));
+        }
+        return activeUserService.linkVisitors(token)
+                .map(visitors -> "🔗 <code>" + token + "</code>: <b>" + visitors + "</b> pengunjung unik (estimasi)")
+                .defaultIfEmpty("🔗 Belum ada data pengunjung untuk <code>" + token + "</code>.");
+    }
+}
@@ -0,0 +1,268 @@
+package com.yann.forcesub.handler;
+
+import com.yann.forcesub.service.AdminService;
+import com.yann.forcesub.service.ConfigService;
+import com.yann.forcesub.service.MessageService;
+import com.yann.forcesub.service.TextService;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import com.yann.forcesub.service.telegram.StoredContents;
+import com.yann.forcesub.service.telegram.TelegramService;
+import it.tdlight.client.CommandHandler;
+import it.tdlight.jni.TdApi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+/**
+ * {@code /backfill [sampai_id]}, {@code /backfill stop}, {@code /backfill reset}: membuat link untuk
+ * riwayat channel database yang belum punya dokumen. Bot tidak bisa membaca riwayat lewat
+ * {@code GetChatHistory}, jadi id dipindai per 100 dengan {@code GetMessages}, satu request dalam
+ * satu waktu dengan jeda antar halaman. Cursor disimpan di settings sehingga bisa dilanjutkan.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BackfillHandler implements CommandHandler {
+
+    public static final String KEY_BACKFILL_CURSOR = "BACKFILL CURSOR";
+    private static final int PAGE_SIZE = 100;
+    private static final long REPORT_INTERVAL_MS = 3000;
+
+    private final AdminService adminService;
+    private final ConfigService configService;
+    private final TelegramService telegramService;
+    private final MessageService messageService;
+    private final MessageTextSender messageTextSender;
+    private final TextService textService;
+
+    @Value("${default.database.id}")
+    private long defaultDatabaseId;
+
+    @Value("${forcesub.backfill.page.delay.ms:500}")
+    private long pageDelayMs;
+
+    private final AtomicReference<BackfillRun> running = new AtomicReference<>();
+
+    @Override
+    public void onCommand(TdApi.Chat chat, TdApi.MessageSender commandSender, String arguments) {
+        adminService.isAdmin(chat.id)
+                .subscribe(isAdmin -> {
+                    if (!isAdmin) {
+                        messageTextSender.send(textService.get("common.unauthorized"), chat.id);
+                        return;
+                    }
+
+                    String argument = arguments == null ? "" : arguments.trim();
+                    switch (argument) {
+                        case "stop" -> stop(chat.id);
+                        case "reset" -> configService.setConfig(KEY_BACKFILL_CURSOR, "1")
+                                .subscribe(saved -> messageTextSender.send("🔄 Cursor backfill direset ke 1.", chat.id));
+                        default -> {
+                            if (!argument.isEmpty() && parseLong(argument, 0) <= 0) {
+                                messageTextSender.send("""
+                                        ⚠️ Format: <code>/backfill [sampai_id]</code>
+
+                                        <code>sampai_id</code>: id pesan terakhir (angka positif)
+                                        <code>/backfill stop</code>: hentikan backfill
+                                        <code>/backfill reset</code>: mulai ulang dari id 1""", chat.id);
+                                return;
+                            }
+                            start(chat.id, argument);
+                        }
+                    }
+                }, error -> log.error("Error checking admin status", error));
+    }
+
+    private void stop(long chatId) {
+        BackfillRun run = running.get();
+        if (run == null) {
+            messageTextSender.send("ℹ️ Tidak ada backfill yang berjalan.", chatId);
+            return;
+        }
+        run.stopped = true;
+        messageTextSender.send("⏹ Backfill akan berhenti setelah halaman ini.", chatId);
+    }
+
+    private void start(long chatId, String argument) {
+        long cursor = parseLong(configService.getConfig(KEY_BACKFILL_CURSOR), 1);
+        BackfillRun run = new BackfillRun(chatId, cursor);
+        if (!running.compareAndSet(null, run)) {
+            messageTextSender.send("⚠️ Backfill sudah berjalan. Ketik <code>/backfill stop</code> untuk menghentikan.", chatId);
+            return;
+        }
+
+        upperBound(argument)
+                .flatMap(upper -> {
+                    run.upper = upper;
+                    log.info("Backfill started from {} to {}", run.cursor, upper);
+                    return Mono.fromFuture(messageTextSender.sendAndWait(run.render(), chatId, null));
+                })
+                .flatMap(report -> {
+                    run.report = report;
+                    return page(run);
+                })
+                .doFinally(signal -> running.compareAndSet(run, null))
+                .subscribe(
+                        v -> { },
+                        error -> {
+                            log.error("Backfill failed at cursor {}", run.cursor, error);
+                            run.finish("⚠️ Terhenti: " + error.getMessage());
+                        },
+                        () -> run.finish(run.stopped ? "⏹ Dihentikan" : "✅ Selesai")
+                );
+    }
+
+    private Mono<Long> upperBound(String argument) {
+        if (!argument.isEmpty()) {
+            return Mono.just(parseLong(argument, 0));
+        }
+        return Mono.fromFuture(() -> telegramService.getChat(defaultDatabaseId))
+                .map(chat -> chat.lastMessage != null
+                        ? HandleMessageGenerator.toBotApiMessageId(chat.lastMessage.id)
+                        : 0L);
+    }
+
+    private Mono<Void> page(BackfillRun run) {
+        if (run.stopped || run.cursor > run.upper) {
+            return Mono.empty();
+        }
+
+        long from = run.cursor;
+        long to = Math.min(from + PAGE_SIZE - 1, run.upper);
+        long[] tdLibIds = LongStream.rangeClosed(from, to).map(id -> id << 20).toArray();
+
+        return Mono.fromFuture(() -> telegramService.getMessages(defaultDatabaseId, tdLibIds))
+                .flatMap(result -> ingest(run, Arrays.stream(result.messages).filter(Objects::nonNull).toList(), to >= run.upper))
+                .then(Mono.defer(() -> {
+                    run.scanned += to - from + 1;
+                    run.cursor = to + 1;
+                    // album yang terpotong di batas halaman ikut dipindai ulang jika backfill dilanjutkan
+                    long nextCursor = run.carry.isEmpty()
+                            ? run.cursor
+                            : HandleMessageGenerator.toBotApiMessageId(run.carry.getFirst().id);
+                    run.report();
+                    return configService.setConfig(KEY_BACKFILL_CURSOR, String.valueOf(nextCursor)).then();
+                }))
+                .then(Mono.delay(Duration.ofMillis(pageDelayMs)))
+                .then(Mono.defer(() -> page(run)));
+    }
+
+    private Mono<Void> ingest(BackfillRun run, List<TdApi.Message> messages, boolean lastPage) {
+        List<TdApi.Message> ordered = new ArrayList<>(run.carry);
+        run.carry.clear();
+        messages.stream()
+                .filter(BackfillHandler::isContent)
+                .forEach(ordered::add);
+
+        List<List<TdApi.Message>> units = new ArrayList<>();
+        for (TdApi.Message message : ordered) {
+            List<TdApi.Message> last = units.isEmpty() ? null : units.getLast();
+            if (last != null && message.mediaAlbumId != 0 && last.getFirst().mediaAlbumId == message.mediaAlbumId) {
+                last.add(message);
+            } else {
+                List<TdApi.Message> unit = new ArrayList<>();
+                unit.add(message);
+                units.add(unit);
+            }
+        }
+        if (!lastPage && !units.isEmpty() && units.getLast().getFirst().mediaAlbumId != 0) {
+            run.carry.addAll(units.removeLast());
+        }
+        if (units.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<MessageService.LinkRequest> requests = units.stream()
+                .map(unit -> HandleMessageGenerator.linkRequest(unit, unit.stream()
+                        .map(message -> HandleMessageGenerator.toBotApiMessageId(message.id))
+                        .toList()))
+                .toList();
+
+        return messageService.createBatchLinks(defaultDatabaseId, requests, configService.isContentRestricted())
+                .count()
+                .doOnNext(count -> {
+                    run.links += count;
+                    run.messages += units.stream().mapToInt(List::size).sum();
+                })
+                .then();
+    }
+
+    private static boolean isContent(TdApi.Message message) {
+        // balasan bot sendiri ("Link berhasil dibuat!", ringkasan burst) bukan konten channel
+        if (message.isOutgoing) return false;
+        return StoredContents.capture(0, 0, message.content) != null
+                || message.content instanceof TdApi.MessageSticker
+                || message.content instanceof TdApi.MessageVideoNote;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return value != null ? Long.parseLong(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private class BackfillRun {
+        private final long chatId;
+        private final long startCursor;
+        private final long startedAt = System.nanoTime();
+        private final List<TdApi.Message> carry = new ArrayList<>();
+        private volatile boolean stopped;
+        private long cursor;
+        private long upper;
+        private long scanned;
+        private long messages;
+        private long links;
+        private long lastReportAt;
+        private TdApi.Message report;
+
+        private BackfillRun(long chatId, long cursor) {
+            this.chatId = chatId;
+            this.startCursor = cursor;
+            this.cursor = cursor;
+        }
+
+        private void report() {
+            long now = System.currentTimeMillis();
+            if (report == null || now - lastReportAt < REPORT_INTERVAL_MS) return;
+            lastReportAt = now;
+            messageTextSender.edit(render(), report.chatId, report.id, null);
+        }
+
+        private void finish(String status) {
+            log.info("Backfill finished: {} messages, {} links, cursor {}", messages, links, cursor);
+            String text = render() + "\n" + status;
+            if (report != null) {
+                messageTextSender.edit(text, report.chatId, report.id, null);
+            } else {
+                messageTextSender.send(text, chatId);
+            }
+        }
+
+        private String render() {
+            double seconds = Math.max((System.nanoTime() - startedAt) / 1_000_000_000.0, 0.001);
+            return String.format("""
+                    📚 <b>Backfill Channel Database</b>
+
+                    🔢 <b>Range:</b> <code>%d</code> - <code>%d</code>
+                    📍 <b>Cursor:</b> <code>%d</code>
+                    🔎 <b>Dipindai:</b> %d id
+                    📥 <b>Pesan:</b> %d
+                    🔗 <b>Link:</b> %d
+                    ⚡ <b>Throughput:</b> %.1f pesan/detik
+                    """,
+                    startCursor, upper, cursor, scanned, messages, links, messages / seconds);
+        }
+    }
+}
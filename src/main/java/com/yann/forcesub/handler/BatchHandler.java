@@ -0,0 +1,253 @@
+package com.yann.forcesub.handler;
+
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.service.AdminService;
+import com.yann.forcesub.service.ConfigService;
+import com.yann.forcesub.service.MessageService;
+import com.yann.forcesub.service.TextService;
+import com.yann.forcesub.service.UserStateService;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import com.yann.forcesub.service.telegram.StoredContents;
+import com.yann.forcesub.service.telegram.TelegramService;
+import it.tdlight.client.CommandHandler;
+import it.tdlight.jni.TdApi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * {@code /batch <start> <end> [expire=7d] [max=100]} atau forward pesan pertama dan terakhir dari channel database.
+ * Seluruh range dicek dengan {@code GetMessages} per 100 id, id yang sudah dihapus dibuang,
+ * lalu hasilnya disimpan sebagai satu link yang tidak perlu divalidasi ulang saat delivery.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchHandler implements CommandHandler {
+
+    private static final String STATE_PREFIX = "BATCH_";
+    private static final String STATE_BATCH_FIRST = STATE_PREFIX + "FIRST";
+    private static final String STATE_BATCH_SECOND = STATE_PREFIX + "SECOND:";
+
+    private final AdminService adminService;
+    private final UserStateService userStateService;
+    private final MessageTextSender messageTextSender;
+    private final TelegramService telegramService;
+    private final MessageService messageService;
+    private final ConfigService configService;
+    private final TextService textService;
+    private final HandleMessageGenerator handleMessageGenerator;
+
+    @Value("${default.database.id}")
+    private long defaultDatabaseId;
+
+    @Value("${forcesub.batch.max.range:2000}")
+    private int maxRange;
+
+    @Override
+    public void onCommand(TdApi.Chat chat, TdApi.MessageSender commandSender, String arguments) {
+        adminService.isAdmin(chat.id)
+                .subscribe(isAdmin -> {
+                    if (!isAdmin) {
+                        messageTextSender.send(textService.get("common.unauthorized"), chat.id);
+                        return;
+                    }
+
+                    String[] args = arguments == null || arguments.isBlank()
+                            ? new String[0]
+                            : arguments.trim().split("\\s+");
+
+                    if (args.length == 0) {
+                        userStateService.setState(chat.id, STATE_BATCH_FIRST);
+                        messageTextSender.send("""
+                                📦 <b>Batch Link</b>
+
+                                Forward pesan <b>pertama</b> dari channel database.
+                                Ketik /cancel untuk membatalkan.
+                                """, chat.id);
+                        return;
+                    }
+
+                    Long start = parseId(args[0]);
+                    Long end = args.length > 1 ? parseId(args[1]) : null;
+                    MessageService.LinkLimits limits = parseLimits(args);
+                    if (start == null || end == null || limits == null) {
+                        messageTextSender.send("""
+                                ⚠️ Format: <code>/batch &lt;start&gt; &lt;end&gt; [expire=7d] [max=100]</code>
+
+                                <code>expire</code>: masa berlaku (m = menit, h = jam, d = hari)
+                                <code>max</code>: batas jumlah pengambilan""", chat.id);
+                        return;
+                    }
+                    createBatch(chat.id, start, end, limits);
+                }, error -> log.error("Error checking admin status", error));
+    }
+
+    public void handleTextMessage(TdApi.Message message, long userId) {
+        String state = userStateService.getState(userId);
+        if (state == null || message.isOutgoing) return;
+
+        if (message.content instanceof TdApi.MessageText text && text.text.text.startsWith("/")) {
+            if ("/cancel".equals(text.text.text)) {
+                userStateService.clearState(userId);
+                messageTextSender.send("❌ Batch dibatalkan.", message.chatId);
+            }
+            return;
+        }
+
+        Long forwardedId = forwardedDatabaseMessageId(message);
+        if (forwardedId == null) {
+            messageTextSender.send("⚠️ Forward pesan dari channel database. Ketik /cancel untuk membatalkan.", message.chatId);
+            return;
+        }
+
+        if (STATE_BATCH_FIRST.equals(state)) {
+            userStateService.setState(userId, STATE_BATCH_SECOND + forwardedId);
+            messageTextSender.send("✅ Pesan pertama: <code>" + forwardedId + "</code>\n\nSekarang forward pesan <b>terakhir</b>.", message.chatId);
+            return;
+        }
+
+        if (state.startsWith(STATE_BATCH_SECOND)) {
+            userStateService.clearState(userId);
+            long start = Long.parseLong(state.substring(STATE_BATCH_SECOND.length()));
+            createBatch(message.chatId, start, forwardedId, MessageService.LinkLimits.NONE);
+        }
+    }
+
+    private void createBatch(long chatId, long first, long last, MessageService.LinkLimits limits) {
+        long start = Math.min(first, last);
+        long end = Math.max(first, last);
+        if (end - start + 1 > maxRange) {
+            messageTextSender.send("⚠️ Range terlalu besar, maksimal " + maxRange + " pesan.", chatId);
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        validateRange(start, end)
+                .flatMap(messages -> {
+                    if (messages.isEmpty()) {
+                        messageTextSender.send("⚠️ Tidak ada pesan di range tersebut.", chatId);
+                        return Mono.empty();
+                    }
+                    List<Long> existing = messages.stream()
+                            .map(message -> HandleMessageGenerator.toBotApiMessageId(message.id))
+                            .toList();
+                    List<StoredContent> contents = StoredContents.captureAll(messages, HandleMessageGenerator::toBotApiMessageId);
+                    return messageService.createValidatedLink(defaultDatabaseId, existing, contents, configService.isContentRestricted(), limits)
+                            .flatMap(handleMessageGenerator::shareMarkup)
+                            .doOnNext(markup -> {
+                                long total = end - start + 1;
+                                String text = String.format("""
+                                        <b>Batch link berhasil dibuat!</b>
+
+                                        <b>Detail:</b>
+                                        ├ Range: <code>%d</code> - <code>%d</code>
+                                        ├ Pesan: <code>%d</code> dari <code>%d</code> (%d dihapus)
+                                        ├ Berlaku sampai: %s
+                                        ├ Maks. pengambilan: %s
+                                        └ Validasi: %d ms
+
+                                        📤 Klik tombol di bawah untuk share link!""",
+                                        start, end, existing.size(), total, total - existing.size(),
+                                        limits.expiresAt() != null ? "<code>" + limits.expiresAt() + "</code>" : "selamanya",
+                                        limits.maxUses() != null ? "<code>" + limits.maxUses() + "</code>" : "tanpa batas",
+                                        (System.nanoTime() - startedAt) / 1_000_000);
+                                messageTextSender.send(text, chatId, markup);
+                            });
+                })
+                .subscribe(
+                        markup -> log.info("Batch link created for range {}-{}", start, end),
+                        error -> {
+                            log.error("Error creating batch link", error);
+                            messageTextSender.send("❌ Gagal membuat batch link: " + error.getMessage(), chatId);
+                        }
+                );
+    }
+
+    /**
+     * Mengembalikan pesan yang masih ada di channel database, urut naik.
+     */
+    private Mono<List<TdApi.Message>> validateRange(long start, long end) {
+        List<Long> ids = LongStream.rangeClosed(start, end).boxed().toList();
+        return Mono.fromFuture(() -> telegramService.getExistingMessages(defaultDatabaseId, ids));
+    }
+
+    private Long forwardedDatabaseMessageId(TdApi.Message message) {
+        if (message.forwardInfo != null
+                && message.forwardInfo.origin instanceof TdApi.MessageOriginChannel origin
+                && origin.chatId == defaultDatabaseId) {
+            return HandleMessageGenerator.toBotApiMessageId(origin.messageId);
+        }
+        return null;
+    }
+
+    // hanya angka positif; id pesan dan opsi tidak pernah 0 atau negatif
+    private static Long parseId(String value) {
+        try {
+            long id = Long.parseLong(value);
+            return id > 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opsi {@code expire=<n>m|h|d} dan {@code max=<n>} setelah start dan end; null jika ada opsi yang tidak valid.
+     */
+    static MessageService.LinkLimits parseLimits(String[] args) {
+        Instant expiresAt = null;
+        Integer maxUses = null;
+        for (int i = 2; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (option.length != 2) return null;
+            switch (option[0].toLowerCase()) {
+                case "expire" -> {
+                    Duration ttl = parseDuration(option[1]);
+                    if (ttl == null) return null;
+                    try {
+                        expiresAt = Instant.now().plus(ttl);
+                    } catch (DateTimeException | ArithmeticException e) {
+                        return null;
+                    }
+                }
+                case "max" -> {
+                    Long max = parseId(option[1]);
+                    if (max == null || max > Integer.MAX_VALUE) return null;
+                    maxUses = max.intValue();
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return new MessageService.LinkLimits(expiresAt, maxUses);
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.length() < 2) return null;
+        Long amount = parseId(value.substring(0, value.length() - 1));
+        if (amount == null) return null;
+        try {
+            return switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+                case 'm' -> Duration.ofMinutes(amount);
+                case 'h' -> Duration.ofHours(amount);
+                case 'd' -> Duration.ofDays(amount);
+                default -> null;
+            };
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public static boolean isBatchState(String state) {
+        return state != null && state.startsWith(STATE_PREFIX);
+    }
+}
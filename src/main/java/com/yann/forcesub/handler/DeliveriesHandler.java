@@ -0,0 +1,90 @@
+package com.yann.forcesub.handler;
+
+import com.yann.forcesub.repository.DeliveryEventRepository;
+import com.yann.forcesub.repository.DeliveryEventRepositoryCustom.DailyVolume;
+import com.yann.forcesub.repository.DeliveryEventRepositoryCustom.LatencyPercentiles;
+import com.yann.forcesub.service.AdminService;
+import com.yann.forcesub.service.TextService;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import it.tdlight.client.CommandHandler;
+import it.tdlight.jni.TdApi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * {@code /deliveries [hari]}: volume pengiriman harian dan persentil latency dari log delivery (default 7 hari).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveriesHandler implements CommandHandler {
+
+    private static final int DEFAULT_DAYS = 7;
+    private static final int MAX_DAYS = 90;
+
+    private final AdminService adminService;
+    private final DeliveryEventRepository deliveryEventRepository;
+    private final MessageTextSender messageTextSender;
+    private final TextService textService;
+
+    @Override
+    public void onCommand(TdApi.Chat chat, TdApi.MessageSender commandSender, String arguments) {
+        int days = parseDays(arguments);
+        Instant since = LocalDate.now(ZoneOffset.UTC).minusDays(days - 1L).atStartOfDay().toInstant(ZoneOffset.UTC);
+
+        adminService.isAdmin(chat.id)
+                .filter(isAdmin -> {
+                    if (!isAdmin) {
+                        messageTextSender.send(textService.get("common.unauthorized"), chat.id);
+                    }
+                    return isAdmin;
+                })
+                .flatMap(isAdmin -> Mono.zip(
+                        deliveryEventRepository.dailyVolume(since).collectList(),
+                        deliveryEventRepository.latencyPercentiles(since)))
+                .subscribe(
+                        tuple -> messageTextSender.send(render(days, tuple.getT1(), tuple.getT2()), chat.id),
+                        error -> {
+                            log.error("Error handling deliveries command", error);
+                            messageTextSender.send("❌ Gagal membaca log delivery.", chat.id);
+                        }
+                );
+    }
+
+    private static int parseDays(String arguments) {
+        if (arguments == null || arguments.isBlank()) {
+            return DEFAULT_DAYS;
+        }
+        try {
+            int days = Integer.parseInt(arguments.trim());
+            return Math.clamp(days, 1, MAX_DAYS);
+        } catch (NumberFormatException e) {
+            return DEFAULT_DAYS;
+        }
+    }
+
+    private static String render(int days, List<DailyVolume> volumes, LatencyPercentiles latency) {
+        if (volumes.isEmpty()) {
+            return "📦 Belum ada pengiriman dalam " + days + " hari terakhir.";
+        }
+        StringBuilder text = new StringBuilder("📦 <b>Delivery ").append(days).append(" hari</b>\n\n");
+        for (DailyVolume volume : volumes) {
+            text.append(volume.day().atOffset(ZoneOffset.UTC).toLocalDate())
+                    .append(": <b>").append(volume.delivered()).append("</b>/")
+                    .append(volume.deliveries()).append(" terkirim, ")
+                    .append(volume.messages()).append(" pesan\n");
+        }
+        text.append("\n⏱ Latency (").append(latency.count()).append(" terkirim): p50 <b>")
+                .append(Math.round(latency.p50())).append("</b> ms, p90 <b>")
+                .append(Math.round(latency.p90())).append("</b> ms, p99 <b>")
+                .append(Math.round(latency.p99())).append("</b> ms");
+        return text.toString();
+    }
+}
@@ -4,6 +4,7 @@ import com.yann.forcesub.entity.Channel;
 import com.yann.forcesub.manager.Callback;
 import com.yann.forcesub.manager.CallbackHandler;
 import com.yann.forcesub.manager.CallbackType;
+import com.yann.forcesub.service.ChannelRosterService;
 import com.yann.forcesub.service.ChannelService;
 import com.yann.forcesub.service.ReplyBuilder;
 import com.yann.forcesub.service.UserStateService;
@@ -22,6 +23,7 @@ public class ForceSubUpdateHandler implements CallbackHandler {
     private final TelegramService telegramService;
     private final MessageTextSender messageTextSender;
     private final UserStateService userStateService;
+    private final ChannelRosterService channelRosterService;
 
     private static final String STATE_ADD_CHANNEL = "ADD_CHANNEL";
     private static final String STATE_EDIT_CHANNEL = "EDIT_CHANNEL";
@@ -29,11 +31,13 @@ public class ForceSubUpdateHandler implements CallbackHandler {
     public ForceSubUpdateHandler(ChannelService channelService,
                                  TelegramService telegramService,
                                  MessageTextSender messageTextSender,
-                                 UserStateService userStateService) {
+                                 UserStateService userStateService,
+                                 ChannelRosterService channelRosterService) {
         this.channelService = channelService;
         this.telegramService = telegramService;
         this.messageTextSender = messageTextSender;
         this.userStateService = userStateService;
+        this.channelRosterService = channelRosterService;
     }
 
     @Override
@@ -241,6 +245,7 @@ public class ForceSubUpdateHandler implements CallbackHandler {
 
     public void handleDeleteChannel(long chatId, long messageId, long channelId) {
         channelService.deleteById(channelId)
+                .doOnSuccess(v -> channelRosterService.forgetRoster(channelId))
                 .then()
                 .subscribe(
                         unused -> {
@@ -406,6 +411,7 @@ public class ForceSubUpdateHandler implements CallbackHandler {
                                                                             .addCallback("🔙 Kembali ke Daftar", "channel")
                                                                             .build()
                                                             );
+                                                            channelRosterService.importRoster(saved.getId(), chatId);
                                                         }, error -> {
                                                             log.error("Error saving channel", error);
                                                             userStateService.clearState(userId);
@@ -1,12 +1,20 @@
 package com.yann.forcesub.handler;
 
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.service.ActiveUserService;
+import com.yann.forcesub.service.MessageService;
+import com.yann.forcesub.service.UserService;
 import com.yann.forcesub.service.UserStateService;
+import com.yann.forcesub.service.telegram.StoredContents;
 import it.tdlight.jni.TdApi;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -19,8 +27,19 @@ public class GenericTypeMessage {
     private final UserStateService userStateService;
     private final VarsHandler varsHandler;
     private final ForceSubUpdateHandler forceSubUpdateHandler;
+    private final BatchHandler batchHandler;
+    private final MessageService messageService;
+    private final UserService userService;
+    private final ActiveUserService activeUserService;
 
     public void handle(TdApi.UpdateNewMessage message) {
+        if (message.message.senderId instanceof TdApi.MessageSenderUser user
+                && !message.message.isOutgoing
+                && message.message.chatId == user.userId) {
+            userService.saveUser(user.userId);
+            activeUserService.recordActive(user.userId);
+        }
+
         String state = userStateService.getState(message.message.chatId);
         if (state != null) {
             if (state.startsWith("EDIT_VAR")) {
@@ -29,6 +48,9 @@ public class GenericTypeMessage {
             if (state.startsWith("EDIT_CHANNEL") || state.startsWith("ADD_CHANNEL")) {
                 forceSubUpdateHandler.handleTextMessage(message.message, message.message.chatId);
             }
+            if (BatchHandler.isBatchState(state)) {
+                batchHandler.handleTextMessage(message.message, message.message.chatId);
+            }
         }
         String messageText = extractMessageText(message.message.content);
         if (messageText == null || messageText.startsWith("/")) {
@@ -55,6 +77,35 @@ public class GenericTypeMessage {
         return null;
     }
 
+    /**
+     * Pesan di channel database diedit: perbarui salinan konten yang dipakai untuk delivery.
+     */
+    public void handleContentUpdate(TdApi.UpdateMessageContent update) {
+        if (update.chatId != defaultDatabaseId) return;
+
+        long messageId = HandleMessageGenerator.toBotApiMessageId(update.messageId);
+        StoredContent content = StoredContents.capture(messageId, 0, update.newContent);
+        messageService.refreshStoredContent(update.chatId, messageId, content)
+                .subscribe(
+                        count -> log.info("Refreshed stored content of message {} in {} links", messageId, count),
+                        error -> log.error("Failed to refresh stored content of message {}", messageId, error)
+                );
+    }
+
+    public void handleDeleteMessages(TdApi.UpdateDeleteMessages update) {
+        if (update.chatId != defaultDatabaseId || !update.isPermanent || update.fromCache) return;
+
+        List<Long> messageIds = Arrays.stream(update.messageIds)
+                .mapToObj(HandleMessageGenerator::toBotApiMessageId)
+                .toList();
+        messageService.removeSourceMessages(update.chatId, messageIds)
+                .collectList()
+                .subscribe(
+                        dead -> log.info("Removed {} deleted messages from links, {} links are now dead", messageIds.size(), dead.size()),
+                        error -> log.error("Failed to process deleted messages {}", messageIds, error)
+                );
+    }
+
     private void processMessage(TdApi.UpdateNewMessage message) {
         handleMessageGenerator.handleMessage(message.message);
     }
@@ -3,16 +3,33 @@ package com.yann.forcesub.handler;
 import com.yann.forcesub.service.ConfigService;
 import com.yann.forcesub.service.MessageService;
 import com.yann.forcesub.service.ReplyBuilder;
+import com.yann.forcesub.service.telegram.ContentKeys;
 import com.yann.forcesub.service.telegram.MessageTextSender;
+import com.yann.forcesub.service.telegram.StoredContents;
 import com.yann.forcesub.service.telegram.TelegramService;
 import it.tdlight.jni.TdApi;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -25,22 +42,235 @@ public class HandleMessageGenerator {
     @Value("${default.database.id}")
     private long defaultDatabaseId;
 
+    @Value("${forcesub.album.debounce.ms:1500}")
+    private long albumDebounceMs;
+
+    @Value("${forcesub.burst.window.ms:3000}")
+    private long burstWindowMs;
+
+    @Value("${forcesub.burst.threshold:5}")
+    private int burstThreshold;
+
+    @Value("${forcesub.burst.flush.ms:2000}")
+    private long burstFlushMs;
+
+    @Value("${forcesub.burst.batch.size:100}")
+    private int burstBatchSize;
+
+    private static final int SUMMARY_MAX_LENGTH = 3800;
+
     private static final long TDLIB_MESSAGE_ID_MULTIPLIER = 1048576L;
 
     private final MessageTextSender messageTextSender;
 
+    private final Map<Long, PendingAlbum> pendingAlbums = new ConcurrentHashMap<>();
+
+    private final Deque<Long> recentArrivals = new ArrayDeque<>();
+    private final List<List<TdApi.Message>> burstBuffer = new ArrayList<>();
+    private final Sinks.Many<List<List<TdApi.Message>>> burstBatches = Sinks.many().unicast().onBackpressureBuffer();
+
+    // hanya disentuh dari rantai concatMap burstBatches, jadi tidak perlu sinkronisasi
+    private BurstSummary burstSummary;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ingest-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(this::drainBurstBuffer, burstFlushMs, burstFlushMs, TimeUnit.MILLISECONDS);
+
+        burstBatches.asFlux()
+                .concatMap(batch -> flushBurst(batch)
+                        .onErrorResume(e -> {
+                            log.error("Failed to flush burst of {} posts: {}", batch.size(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+    }
+
     public void handleMessage(TdApi.Message message) {
         log.info("Message received: {}", toBotApiMessageId(message.id));
-        messageReplyMarkup(toBotApiMessageId(message.id))
-                .subscribe(reply -> {
-                    String text = buildResponseText(message);
-                    messageTextSender.send(text, message.chatId, null, reply);
+        if (message.mediaAlbumId != 0) {
+            bufferAlbumMessage(message);
+            return;
+        }
+        ingest(List.of(message));
+    }
+
+    /**
+     * Pesan album datang satu per satu; tahan per {@code mediaAlbumId} sampai tidak ada pesan baru
+     * selama {@code albumDebounceMs}, lalu buat satu link untuk seluruh album.
+     */
+    private void bufferAlbumMessage(TdApi.Message message) {
+        pendingAlbums.compute(message.mediaAlbumId, (albumId, album) -> {
+            PendingAlbum pending = album != null ? album : new PendingAlbum();
+            pending.messages.add(message);
+            if (pending.flushTask != null) {
+                pending.flushTask.cancel(false);
+            }
+            pending.flushTask = scheduler.schedule(() -> flushAlbum(albumId), albumDebounceMs, TimeUnit.MILLISECONDS);
+            return pending;
+        });
+    }
+
+    private void flushAlbum(long albumId) {
+        PendingAlbum album = pendingAlbums.remove(albumId);
+        if (album == null || album.messages.isEmpty()) return;
+
+        List<TdApi.Message> messages = album.messages.stream()
+                .sorted(Comparator.comparingLong(m -> m.id))
+                .toList();
+        log.info("Album {} flushed with {} messages", albumId, messages.size());
+        ingest(messages);
+    }
+
+    /**
+     * Post tunggal dibalas langsung. Saat banyak post masuk dalam {@code burstWindowMs}, post ditampung
+     * lalu disimpan per batch dengan {@code insertAll} dan dirangkum dalam satu pesan yang diedit.
+     */
+    private void ingest(List<TdApi.Message> messages) {
+        if (!isBurst()) {
+            publish(messages);
+            return;
+        }
+
+        List<List<TdApi.Message>> batch = null;
+        synchronized (burstBuffer) {
+            burstBuffer.add(messages);
+            if (burstBuffer.size() >= burstBatchSize) {
+                batch = drain();
+            }
+        }
+        if (batch != null) {
+            burstBatches.emitNext(batch, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        }
+    }
+
+    private boolean isBurst() {
+        long now = System.currentTimeMillis();
+        synchronized (recentArrivals) {
+            recentArrivals.addLast(now);
+            while (now - recentArrivals.peekFirst() > burstWindowMs) {
+                recentArrivals.pollFirst();
+            }
+            return recentArrivals.size() >= burstThreshold;
+        }
+    }
+
+    private void drainBurstBuffer() {
+        List<List<TdApi.Message>> batch;
+        synchronized (burstBuffer) {
+            if (burstBuffer.isEmpty()) return;
+            batch = drain();
+        }
+        burstBatches.emitNext(batch, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+    }
+
+    private List<List<TdApi.Message>> drain() {
+        List<List<TdApi.Message>> batch = new ArrayList<>(burstBuffer);
+        burstBuffer.clear();
+        return batch;
+    }
+
+    private Mono<Void> flushBurst(List<List<TdApi.Message>> batch) {
+        List<List<Long>> groups = batch.stream()
+                .map(messages -> messages.stream().map(m -> toBotApiMessageId(m.id)).toList())
+                .toList();
+        List<MessageService.LinkRequest> requests = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            requests.add(linkRequest(batch.get(i), groups.get(i)));
+        }
+        long chatId = batch.getFirst().getFirst().chatId;
+
+        return messageService.createBatchLinks(defaultDatabaseId, requests, configService.isContentRestricted())
+                .collectList()
+                .zipWith(botUsername())
+                .flatMap(tuple -> {
+                    List<String> tokens = tuple.getT1();
+                    List<String> lines = new ArrayList<>(tokens.size());
+                    for (int i = 0; i < tokens.size(); i++) {
+                        List<Long> ids = groups.get(i);
+                        String label = ids.size() == 1
+                                ? "Message " + ids.getFirst()
+                                : "Album " + ids.getFirst() + " (" + ids.size() + " media)";
+                        lines.add("<a href='" + link(tuple.getT2(), tokens.get(i)) + "'>" + label + "</a>");
+                    }
+                    log.info("Burst flush: {} links created with one insert", tokens.size());
+                    return appendToSummary(chatId, lines);
                 });
     }
-    private Mono<TdApi.ReplyMarkup> messageReplyMarkup(long messageId) {
 
-        return messageService.createSingleLink(defaultDatabaseId, messageId, configService.isContentRestricted())
-                .flatMap(this::getLink)
+    private Mono<Void> appendToSummary(long chatId, List<String> lines) {
+        long now = System.currentTimeMillis();
+        if (burstSummary == null || now - burstSummary.lastUpdated > burstWindowMs * 2) {
+            burstSummary = new BurstSummary(chatId);
+        }
+
+        Mono<Void> result = Mono.empty();
+        for (String line : lines) {
+            if (!burstSummary.fits(line)) {
+                result = result.then(publishSummary(burstSummary, burstSummary.render()));
+                burstSummary = new BurstSummary(chatId);
+            }
+            burstSummary.add(line);
+        }
+        burstSummary.lastUpdated = now;
+        return result.then(publishSummary(burstSummary, burstSummary.render()));
+    }
+
+    private Mono<Void> publishSummary(BurstSummary summary, String text) {
+        return Mono.defer(() -> {
+            if (summary.report != null) {
+                messageTextSender.edit(text, summary.report.chatId, summary.report.id, null);
+                return Mono.empty();
+            }
+            return Mono.fromFuture(messageTextSender.sendAndWait(text, summary.chatId, null))
+                    .doOnNext(report -> summary.report = report)
+                    .then();
+        });
+    }
+
+    private void publish(List<TdApi.Message> messages) {
+        List<Long> messageIds = messages.stream()
+                .map(m -> toBotApiMessageId(m.id))
+                .toList();
+        long chatId = messages.getFirst().chatId;
+
+        messageReplyMarkup(linkRequest(messages, messageIds))
+                .subscribe(
+                        reply -> messageTextSender.send(buildResponseText(messages), chatId, null, reply),
+                        e -> log.error("Failed to create link for messages {}: {}", messageIds, e.getMessage())
+                );
+    }
+
+    private Mono<TdApi.ReplyMarkup> messageReplyMarkup(MessageService.LinkRequest request) {
+
+        return messageService.createBatchLink(defaultDatabaseId, request, configService.isContentRestricted())
+                .flatMap(this::shareMarkup);
+    }
+
+    public static MessageService.LinkRequest linkRequest(List<TdApi.Message> messages, List<Long> messageIds) {
+        return new MessageService.LinkRequest(
+                messageIds,
+                ContentKeys.of(messages),
+                StoredContents.captureAll(messages, HandleMessageGenerator::toBotApiMessageId)
+        );
+    }
+
+    public Mono<TdApi.ReplyMarkup> shareMarkup(String linkCode) {
+        return getLink(linkCode)
                 .map(shareUrl -> ReplyBuilder.inline()
                         .addUrl("Share", "https://telegram.me/share/url?url=" + shareUrl)
                         .addCopy("Copy Link", shareUrl)
@@ -48,21 +278,31 @@ public class HandleMessageGenerator {
     }
 
     private Mono<String> getLink(String linkCode) {
+        return botUsername().map(username -> link(username, linkCode));
+    }
+
+    public Mono<String> botUsername() {
         return Mono.fromFuture(telegramService.getMe())
-                .map(user -> {
-                    String username = Arrays.stream(user.usernames.activeUsernames)
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalStateException("Bot username not found"));
+                .map(user -> Arrays.stream(user.usernames.activeUsernames)
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("Bot username not found")));
+    }
 
-                    return String.format("https://t.me/%s?start=%s", username, linkCode);
-                });
+    public static String link(String username, String linkCode) {
+        return String.format("https://t.me/%s?start=%s", username, linkCode);
     }
 
-    private String buildResponseText(TdApi.Message message) {
+    private String buildResponseText(List<TdApi.Message> messages) {
         StringBuilder text = new StringBuilder();
         text.append("<b>Link berhasil dibuat!</b>\n\n");
         text.append("<b>Detail:</b>\n");
-        text.append("├ Message ID: <code>").append(message.id).append("</code>\n");
+        if (messages.size() == 1) {
+            text.append("├ Message ID: <code>").append(messages.getFirst().id).append("</code>\n");
+        } else {
+            text.append("├ Album: <code>").append(messages.size()).append("</code> media\n");
+            text.append("├ Message ID: <code>").append(messages.getFirst().id)
+                    .append("</code> - <code>").append(messages.getLast().id).append("</code>\n");
+        }
         text.append("├ Database ID: <code>").append(defaultDatabaseId).append("</code>\n");
 
         if (configService.isContentRestricted()) {
@@ -80,4 +320,34 @@ public class HandleMessageGenerator {
         }
         return tdLibMessageId;
     }
+
+    private static class BurstSummary {
+        private final long chatId;
+        private final StringBuilder body = new StringBuilder();
+        private int count;
+        private long lastUpdated = System.currentTimeMillis();
+        private TdApi.Message report;
+
+        private BurstSummary(long chatId) {
+            this.chatId = chatId;
+        }
+
+        private boolean fits(String line) {
+            return count == 0 || body.length() + line.length() + 16 < SUMMARY_MAX_LENGTH;
+        }
+
+        private void add(String line) {
+            count++;
+            body.append(count).append(". ").append(line).append('\n');
+        }
+
+        private String render() {
+            return "<b>📦 Mode Burst: " + count + " link dibuat</b>\n\n" + body;
+        }
+    }
+
+    private static class PendingAlbum {
+        private final List<TdApi.Message> messages = new ArrayList<>();
+        private ScheduledFuture<?> flushTask;
+    }
 }
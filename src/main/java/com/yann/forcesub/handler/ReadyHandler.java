@@ -0,0 +1,59 @@
+package com.yann.forcesub.handler;
+
+import com.yann.forcesub.service.AdminService;
+import com.yann.forcesub.service.TextService;
+import com.yann.forcesub.service.WarmupService;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import it.tdlight.client.CommandHandler;
+import it.tdlight.jni.TdApi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /ready}: status warm-up cache dan lama pemuatan masing-masing. Tidak ikut ditahan
+ * {@link com.yann.forcesub.service.ReadinessGate}, jadi bisa dipakai selama warm-up berjalan.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadyHandler implements CommandHandler {
+
+    private final AdminService adminService;
+    private final WarmupService warmupService;
+    private final MessageTextSender messageTextSender;
+    private final TextService textService;
+
+    @Override
+    public void onCommand(TdApi.Chat chat, TdApi.MessageSender commandSender, String arguments) {
+        adminService.isAdmin(chat.id)
+                .subscribe(
+                        isAdmin -> messageTextSender.send(isAdmin
+                                ? render()
+                                : textService.get("common.unauthorized"), chat.id),
+                        error -> log.error("Error handling ready command", error)
+                );
+    }
+
+    private String render() {
+        StringBuilder text = new StringBuilder();
+        if (!warmupService.isReady()) {
+            text.append("⏳ Warm-up masih berjalan.");
+        } else if (warmupService.totalMillis() >= 0) {
+            text.append("✅ <b>Ready</b> dalam <b>").append(warmupService.totalMillis()).append("</b> ms");
+        } else {
+            text.append("✅ <b>Ready</b> (warm-up melewati batas waktu)");
+        }
+        text.append("\n\n");
+        for (WarmupService.Phase phase : warmupService.phases()) {
+            text.append(phase.ok() ? "• " : "⚠️ ")
+                    .append(phase.name()).append(": ")
+                    .append(phase.millis()).append(" ms");
+            if (!phase.ok()) {
+                text.append(" — gagal: ").append(phase.error());
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
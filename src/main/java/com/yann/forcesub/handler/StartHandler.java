@@ -1,9 +1,14 @@
 package com.yann.forcesub.handler;
 
 import com.yann.forcesub.entity.Channel;
+import com.yann.forcesub.entity.DeliveryEvent;
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.exceptions.LinkUnavailableException;
 import com.yann.forcesub.manager.Callback;
 import com.yann.forcesub.manager.CallbackHandler;
 import com.yann.forcesub.service.*;
+import com.yann.forcesub.service.link.DecodedStart;
+import com.yann.forcesub.service.link.StartParameterDecoders;
 import com.yann.forcesub.service.telegram.MessageTextSender;
 import com.yann.forcesub.service.telegram.TelegramService;
 import it.tdlight.client.CommandHandler;
@@ -12,10 +17,15 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
 
 @Slf4j
 @Component
@@ -31,8 +41,19 @@ public class StartHandler implements CommandHandler, CallbackHandler {
     private final AdminService adminService;
     private final UserSubscriptionService userSubscriptionService;
     private final ChannelService channelService;
+    private final StartParameterDecoders startParameterDecoders;
+    private final TokenFilter tokenFilter;
+    private final DeliveryLogService deliveryLogService;
+    private final ActiveUserService activeUserService;
 
-    private static final String KEY_FORCE_SUB_ENABLED = "FORCE SUB ENABLED";
+    private static final int FORWARD_CHUNK_SIZE = 100;
+    private static final int MAX_ALBUM_SIZE = 10;
+
+    private static final ReplyBuilder.KeyboardTemplate USER_FEATURE_TEMPLATE = featureTemplate(false);
+    private static final ReplyBuilder.KeyboardTemplate ADMIN_FEATURE_TEMPLATE = featureTemplate(true);
+
+    // Dibangun ulang hanya saat snapshot channel aktif berganti.
+    private final AtomicReference<SubscriptionTemplate> subscriptionTemplate = new AtomicReference<>();
 
     private Mono<String> botUsernameMono;
 
@@ -96,27 +117,80 @@ public class StartHandler implements CommandHandler, CallbackHandler {
     }
 
     private void handleDeepLink(TdApi.Chat chat, String linkCode) {
+        long startedAt = System.nanoTime();
+        DecodedStart decoded = startParameterDecoders.decode(linkCode);
+        if (decoded instanceof DecodedStart.Invalid invalid) {
+            log.info("Rejected start parameter from chat {}: {}", chat.id, invalid.reason());
+            messageTextSender.send(textService.get("common.invalidLink"), chat.id);
+            return;
+        }
+
+        // token yang pasti tidak pernah dibuat ditolak sebelum query Mongo maupun cek force sub
+        if (decoded instanceof DecodedStart.Token token && !tokenFilter.mightExist(token.token())) {
+            log.info("Unknown token {} from chat {}", token.token(), chat.id);
+            messageTextSender.send(textService.get("common.invalidLink"), chat.id);
+            return;
+        }
+
+        if (decoded instanceof DecodedStart.Token token && messageService.isDead(token.token())) {
+            log.info("Link {} is dead, skipping delivery for chat {}", linkCode, chat.id);
+            messageTextSender.send(textService.get("common.contentRemoved"), chat.id);
+            deliveryLogService.record(chat.id, token.token(), null, 0, startedAt, DeliveryEvent.Outcome.REJECTED);
+            return;
+        }
+
+        if (decoded instanceof DecodedStart.Token token) {
+            activeUserService.recordVisit(token.token(), chat.id);
+        }
+
         if (!isForceSubEnabled()) {
-            forwardMessage(linkCode, chat.id);
+            forwardMessage(decoded, chat.id, startedAt);
             return;
         }
 
         log.info("Force sub enabled, checking subscriptions for chat {}", chat.id);
 
-        channelService.findAllActive(true)
-                .collectList()
-                .flatMap(channels -> checkSubscriptionAndForward(chat, linkCode, channels))
+        // Token lookup berjalan bersamaan dengan cek membership; link kedaluwarsa/habis baru ditolak setelah
+        // keduanya selesai. Prefetch pesan sumber (GetMessage per id) hanya untuk user yang lolos membership,
+        // agar user yang ditolak tidak memicu panggilan TDLib. Jika membership gagal, branch membership selesai
+        // kosong dan zip membatalkan lookup.
+        Mono<Tuple2<Long, Boolean>> membership = Mono.defer(() -> checkSubscription(chat, linkCode, channelService.activeChannels()))
+                .filter(Boolean::booleanValue)
+                .elapsed();
+
+        Mono<Tuple2<Long, com.yann.forcesub.entity.Message>> speculative = lookup(decoded)
+                .elapsed();
+
+        Mono.zip(membership, speculative)
+                .flatMap(tuple -> {
+                    long membershipMillis = tuple.getT1().getT1();
+                    long lookupMillis = tuple.getT2().getT1();
+                    log.info("Deep link pipeline for chat {}: membership {} ms, lookup {} ms, saved {} ms",
+                            chat.id, membershipMillis, lookupMillis, Math.min(membershipMillis, lookupMillis));
+
+                    return checkUsable(tuple.getT2().getT2())
+                            .flatMap(this::prepareDelivery)
+                            .flatMap(delivery -> deliver(delivery, chat.id)
+                                    .doOnNext(sent -> recordDelivered(chat.id, delivery, sent, startedAt)));
+                })
+                .switchIfEmpty(Mono.fromRunnable(() -> recordOutcome(chat.id, decoded, startedAt,
+                        DeliveryEvent.Outcome.NOT_SUBSCRIBED)))
+                .then()
+                .onErrorResume(LinkUnavailableException.class, e -> {
+                    recordOutcome(chat.id, decoded, startedAt, DeliveryEvent.Outcome.REJECTED);
+                    return rejectLink(e, chat.id);
+                })
+                .doOnError(error -> recordOutcome(chat.id, decoded, startedAt, DeliveryEvent.Outcome.FAILED))
                 .subscribe(
                         result -> log.debug("Deep link handled successfully"),
                         error -> log.error("Error handling deep link", error)
                 );
     }
 
-    private Mono<Void> checkSubscriptionAndForward(TdApi.Chat chat, String linkCode, List<Channel> channels) {
+    private Mono<Boolean> checkSubscription(TdApi.Chat chat, String linkCode, List<Channel> channels) {
         if (channels.isEmpty()) {
             log.info("No active channels, forwarding message directly");
-            forwardMessage(linkCode, chat.id);
-            return Mono.empty();
+            return Mono.just(true);
         }
 
         List<Long> channelIds = channels.stream()
@@ -127,12 +201,10 @@ public class StartHandler implements CommandHandler, CallbackHandler {
                 .flatMap(isSubscribed -> {
                     if (isSubscribed) {
                         log.info("User {} subscribed to all channels", chat.id);
-                        forwardMessage(linkCode, chat.id);
-                    } else {
-                        log.warn("User {} not subscribed to all required channels", chat.id);
-                        return sendSubscriptionRequired(chat, channels, linkCode);
+                        return Mono.just(true);
                     }
-                    return Mono.empty();
+                    log.warn("User {} not subscribed to all required channels", chat.id);
+                    return sendSubscriptionRequired(chat, channels, linkCode).thenReturn(false);
                 });
     }
 
@@ -146,67 +218,220 @@ public class StartHandler implements CommandHandler, CallbackHandler {
                 .then();
     }
 
-    private void forwardMessage(String token, long chatId) {
-        log.info("Forwarding message with token {} to chat {}", token, chatId);
-
-        messageService.findByToken(token)
-                .flatMap(messageData -> forwardMessages(messageData, chatId))
+    private void forwardMessage(DecodedStart decoded, long chatId, long startedAt) {
+        log.info("Forwarding message {} to chat {}", decoded, chatId);
+
+        lookup(decoded)
+                .flatMap(this::checkUsable)
+                .flatMap(this::prepareDelivery)
+                .flatMap(delivery -> deliver(delivery, chatId)
+                        .doOnNext(sent -> recordDelivered(chatId, delivery, sent, startedAt)))
+                .then()
+                .onErrorResume(LinkUnavailableException.class, e -> {
+                    recordOutcome(chatId, decoded, startedAt, DeliveryEvent.Outcome.REJECTED);
+                    return rejectLink(e, chatId);
+                })
+                .doOnError(error -> recordOutcome(chatId, decoded, startedAt, DeliveryEvent.Outcome.FAILED))
                 .subscribe(
                         result -> log.info("Messages forwarded successfully to chat {}", chatId),
                         error -> log.error("Error forwarding message", error)
                 );
     }
 
-    private Mono<Void> forwardMessages(com.yann.forcesub.entity.Message messageData, long chatId) {
+    private Mono<com.yann.forcesub.entity.Message> lookup(DecodedStart decoded) {
+        return switch (decoded) {
+            // tidak ada dokumen: belum pernah tersimpan, sudah dihapus TTL index, atau masih pending di replica lain
+            case DecodedStart.Token token -> messageService.lookupToken(token.token())
+                    .switchIfEmpty(Mono.error(() -> new LinkUnavailableException("common.linkNotFound")));
+            // link format lama tidak punya dokumen; id dicek satu per satu seperti link yang belum divalidasi
+            case DecodedStart.Range range -> Mono.just(com.yann.forcesub.entity.Message.builder()
+                    .channelId(range.channelId())
+                    .messageIds(LongStream.rangeClosed(range.firstId(), range.lastId()).boxed().toList())
+                    .build());
+            case DecodedStart.Invalid invalid -> Mono.empty();
+        };
+    }
+
+    private Mono<com.yann.forcesub.entity.Message> checkUsable(com.yann.forcesub.entity.Message messageData) {
+        if (messageData.isDead()) {
+            return Mono.error(new LinkUnavailableException("common.contentRemoved"));
+        }
+        if (messageData.isExpired(Instant.now())) {
+            return Mono.error(new LinkUnavailableException("common.linkExpired"));
+        }
+        if (messageData.isExhausted()) {
+            return Mono.error(new LinkUnavailableException("common.linkExhausted"));
+        }
+        return Mono.just(messageData);
+    }
+
+    private Mono<PreparedDelivery> prepareDelivery(com.yann.forcesub.entity.Message messageData) {
+        return messageData.isValidated() || messageData.getContents() != null
+                ? Mono.just(new PreparedDelivery(messageData, messageData.getMessageIds()))
+                : prefetch(messageData);
+    }
+
+    private void recordDelivered(long chatId, PreparedDelivery delivery, int sent, long startedAt) {
+        int expected = delivery.availableIds().size();
+        DeliveryEvent.Outcome outcome;
+        if (expected == 0) {
+            outcome = DeliveryEvent.Outcome.REMOVED;
+        } else if (sent == 0) {
+            outcome = DeliveryEvent.Outcome.FAILED;
+        } else if (sent < expected) {
+            outcome = DeliveryEvent.Outcome.PARTIAL;
+        } else {
+            outcome = DeliveryEvent.Outcome.DELIVERED;
+        }
+        deliveryLogService.record(chatId, delivery.message().getId(), delivery.message().getChannelId(), sent, startedAt, outcome);
+    }
+
+    private void recordOutcome(long chatId, DecodedStart decoded, long startedAt, DeliveryEvent.Outcome outcome) {
+        switch (decoded) {
+            case DecodedStart.Token token -> deliveryLogService.record(chatId, token.token(), null, 0, startedAt, outcome);
+            case DecodedStart.Range range -> deliveryLogService.record(chatId, null, range.channelId(), 0, startedAt, outcome);
+            case DecodedStart.Invalid invalid -> {
+            }
+        }
+    }
+
+    private Mono<Void> rejectLink(LinkUnavailableException e, long chatId) {
+        log.info("Link rejected for chat {}: {}", chatId, e.getMessage());
+        messageTextSender.send(textService.get(e.getMessage()), chatId);
+        return Mono.empty();
+    }
+
+    private Mono<PreparedDelivery> prefetch(com.yann.forcesub.entity.Message messageData) {
+        return Mono.fromFuture(() -> telegramService.getExistingMessages(messageData.getChannelId(), messageData.getMessageIds()))
+                .map(messages -> new PreparedDelivery(messageData, messages.stream()
+                        .map(message -> HandleMessageGenerator.toBotApiMessageId(message.id))
+                        .toList()));
+    }
+
+    /**
+     * Mengembalikan jumlah pesan yang benar-benar terkirim; kegagalan per pesan ditelan agar sisanya tetap terkirim.
+     */
+    private Mono<Integer> deliver(PreparedDelivery delivery, long chatId) {
+        com.yann.forcesub.entity.Message messageData = delivery.message();
         log.info("Forwarding {} messages from channel {} to chat {}",
-                messageData.getMessageIds().size(), messageData.getChannelId(), chatId);
+                delivery.availableIds().size(), messageData.getChannelId(), chatId);
+
+        if (delivery.availableIds().isEmpty()) {
+            messageTextSender.send(textService.get("common.contentRemoved"), chatId);
+            return Mono.just(0);
+        }
 
-        List<Long> messageIds = messageData.getMessageIds();
         boolean isRestricted = configService.isContentRestricted();
 
-        if (messageIds.size() == 1) {
-            return forwardSingleMessage(messageData.getChannelId(), messageIds.getFirst(), chatId, isRestricted);
+        // link dengan kuota harus berhasil klaim (atomik) sebelum dikirim; link lain cukup dicatat di belakang
+        Mono<Boolean> claimed = Mono.just(true);
+        if (messageData.getMaxUses() != null) {
+            claimed = messageService.claimUse(messageData);
+        } else if (messageData.getId() != null) {
+            messageService.recordView(messageData.getId())
+                    .subscribe(null, error -> log.error("Failed to record view for {}", messageData.getId(), error));
         }
 
-        return forwardMultipleMessages(messageData.getChannelId(), messageIds, chatId, isRestricted);
+        Mono<Integer> sending = messageData.getContents() != null
+                ? sendStored(messageData, chatId, isRestricted)
+                : forwardChunks(messageData.getChannelId(), delivery.availableIds(), chatId, isRestricted);
+
+        return claimed
+                .flatMap(ok -> ok
+                        ? sending.doOnNext(sent -> log.info("{} of {} messages copied to chat {}",
+                                sent, delivery.availableIds().size(), chatId))
+                        : Mono.error(new LinkUnavailableException("common.linkExhausted")));
     }
 
-    private Mono<Void> forwardSingleMessage(long channelId, long messageId, long chatId, boolean isRestricted) {
-        return Mono.fromFuture(
-                        messageTextSender.copyMessage(channelId, messageId, chatId, isRestricted)
-                                .exceptionally(ex -> {
-                                    log.error("Failed to copy message {}", messageId, ex);
-                                    return null;
-                                })
-                ).doOnSuccess(result -> log.info("Message {} copied successfully to chat {}", messageId, chatId))
-                .then();
+    /**
+     * Kirim ulang dari file id remote yang disimpan saat link dibuat, album tetap utuh dalam satu SendMessageAlbum.
+     * Grup yang gagal (mis. file id sudah tidak valid) dikirim lewat forward dari channel database.
+     */
+    private Mono<Integer> sendStored(com.yann.forcesub.entity.Message messageData, long chatId, boolean isRestricted) {
+        return Flux.fromIterable(groupAlbums(messageData.getContents()))
+                .concatMap(group -> {
+                    Mono<Integer> send = group.size() == 1
+                            ? Mono.fromFuture(() -> messageTextSender.sendContent(chatId, group.getFirst(), isRestricted))
+                                    .thenReturn(1)
+                            : Mono.fromFuture(() -> messageTextSender.sendAlbum(chatId, group, isRestricted))
+                                    .map(StartHandler::sentCount);
+                    return send
+                            .onErrorResume(ex -> {
+                                log.warn("Stored content send failed ({}), falling back to forward", ex.getMessage());
+                                List<Long> ids = group.stream().map(StoredContent::getMessageId).toList();
+                                return forwardChunks(messageData.getChannelId(), ids, chatId, isRestricted);
+                            });
+                })
+                .reduce(0, Integer::sum);
     }
 
-    private Mono<Void> forwardMultipleMessages(long channelId, List<Long> messageIds, long chatId, boolean isRestricted) {
-        List<CompletableFuture<Void>> futures = messageIds.stream()
-                .map(messageId ->
-                        messageTextSender.copyMessage(channelId, messageId, chatId, isRestricted)
-                                .thenAccept(result ->
-                                        log.debug("Message {} copied successfully", messageId)
-                                )
-                                .exceptionally(ex -> {
-                                    log.error("Failed to copy message {}", messageId, ex);
-                                    return null;
-                                })
-                )
-                .toList();
+    private static List<List<StoredContent>> groupAlbums(List<StoredContent> contents) {
+        List<List<StoredContent>> groups = new ArrayList<>();
+        List<StoredContent> current = null;
+        for (StoredContent content : contents) {
+            boolean sameAlbum = current != null
+                    && content.getMediaAlbumId() != 0
+                    && current.getFirst().getMediaAlbumId() == content.getMediaAlbumId()
+                    && current.size() < MAX_ALBUM_SIZE;
+            if (!sameAlbum) {
+                current = new ArrayList<>();
+                groups.add(current);
+            }
+            current.add(content);
+        }
+        return groups;
+    }
 
-        return Mono.fromFuture(
-                        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                ).doOnSuccess(v -> log.info("All {} messages copied successfully to chat {}", messageIds.size(), chatId))
-                .then();
+    // Satu ForwardMessages per 100 id; jika satu chunk gagal, kirim ulang per pesan agar id yang valid tetap terkirim.
+    private Mono<Integer> forwardChunks(long channelId, List<Long> messageIds, long chatId, boolean isRestricted) {
+        return Flux.fromIterable(messageIds)
+                .buffer(FORWARD_CHUNK_SIZE)
+                .concatMap(chunk -> Mono.fromFuture(() ->
+                                messageTextSender.forwardMessages(channelId, chunk, chatId, isRestricted))
+                        .doOnSuccess(result -> log.debug("Chunk of {} messages copied successfully", chunk.size()))
+                        .map(StartHandler::sentCount)
+                        .onErrorResume(ex -> {
+                            log.warn("Chunk forward failed ({}), falling back to single forwards", ex.getMessage());
+                            return forwardEach(channelId, chunk, chatId, isRestricted);
+                        }))
+                .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> forwardEach(long channelId, List<Long> messageIds, long chatId, boolean isRestricted) {
+        return Flux.fromIterable(messageIds)
+                .concatMap(messageId -> Mono.fromFuture(() ->
+                                messageTextSender.forwardMessage(channelId, messageId, chatId, isRestricted))
+                        .doOnSuccess(result -> log.debug("Message {} copied successfully", messageId))
+                        .map(StartHandler::sentCount)
+                        .onErrorResume(ex -> {
+                            log.error("Failed to copy message {}", messageId, ex);
+                            return Mono.just(0);
+                        }))
+                .reduce(0, Integer::sum);
+    }
+
+    // TDLib mengisi null untuk pesan yang tidak bisa dikirim
+    private static int sentCount(TdApi.Messages result) {
+        if (result == null || result.messages == null) return 0;
+        int sent = 0;
+        for (TdApi.Message message : result.messages) {
+            if (message != null) sent++;
+        }
+        return sent;
+    }
+
+    private record PreparedDelivery(com.yann.forcesub.entity.Message message, List<Long> availableIds) {
     }
 
     private boolean isForceSubEnabled() {
-        return configService.getConfig(KEY_FORCE_SUB_ENABLED).equalsIgnoreCase("true");
+        return configService.isForceSubEnabled();
     }
 
     private TdApi.ReplyMarkup createFeatureMarkup(boolean isAdmin) {
+        return (isAdmin ? ADMIN_FEATURE_TEMPLATE : USER_FEATURE_TEMPLATE).render();
+    }
+
+    private static ReplyBuilder.KeyboardTemplate featureTemplate(boolean isAdmin) {
         ReplyBuilder.InlineKeyboardBuilder builder = ReplyBuilder.inline()
                 .row(2)
                 .addCallback("Help", "help")
@@ -221,10 +446,21 @@ public class StartHandler implements CommandHandler, CallbackHandler {
                     .addCallback("Admins", "admins");
         }
 
-        return builder.build();
+        return builder.buildTemplate();
     }
 
     private TdApi.ReplyMarkup createSubscriptionMarkup(List<Channel> channels, String linkCode, String botUsername) {
+        SubscriptionTemplate cached = subscriptionTemplate.get();
+        if (cached == null || cached.channels() != channels || !cached.botUsername().equals(botUsername)) {
+            cached = new SubscriptionTemplate(channels, botUsername, subscriptionKeyboard(channels));
+            subscriptionTemplate.set(cached);
+        }
+
+        String retryLink = String.format("https://t.me/%s?start=%s", botUsername, linkCode);
+        return cached.template().render(retryLink);
+    }
+
+    private ReplyBuilder.KeyboardTemplate subscriptionKeyboard(List<Channel> channels) {
         ReplyBuilder.InlineKeyboardBuilder builder = ReplyBuilder.inline();
 
         // Add channel subscription buttons
@@ -234,9 +470,12 @@ public class StartHandler implements CommandHandler, CallbackHandler {
 
         // Add retry button
         builder.row(2);
-        String retryLink = String.format("https://t.me/%s?start=%s", botUsername, linkCode);
-        builder.addUrl("Coba Lagi", retryLink);
+        builder.addUrlSlot("Coba Lagi");
+
+        return builder.buildTemplate();
+    }
 
-        return builder.build();
+    private record SubscriptionTemplate(List<Channel> channels, String botUsername,
+                                        ReplyBuilder.KeyboardTemplate template) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.yann.forcesub.handler;
+
+import com.yann.forcesub.service.AdminService;
+import com.yann.forcesub.service.StatisticsService;
+import com.yann.forcesub.service.StatisticsService.Statistics;
+import com.yann.forcesub.service.TextService;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import it.tdlight.client.CommandHandler;
+import it.tdlight.jni.TdApi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /stats}: total user, link, view, dan delivery hari ini dari counter {@link StatisticsService}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatsHandler implements CommandHandler {
+
+    private final AdminService adminService;
+    private final StatisticsService statisticsService;
+    private final MessageTextSender messageTextSender;
+    private final TextService textService;
+
+    @Override
+    public void onCommand(TdApi.Chat chat, TdApi.MessageSender commandSender, String arguments) {
+        adminService.isAdmin(chat.id)
+                .filter(isAdmin -> {
+                    if (!isAdmin) {
+                        messageTextSender.send(textService.get("common.unauthorized"), chat.id);
+                    }
+                    return isAdmin;
+                })
+                .map(isAdmin -> render(statisticsService.snapshot()))
+                .subscribe(
+                        text -> messageTextSender.send(text, chat.id),
+                        error -> log.error("Error handling stats command", error)
+                );
+    }
+
+    private static String render(Statistics stats) {
+        return "📊 <b>Statistik</b>\n\n" +
+                "User: <b>" + stats.users() + "</b>\n" +
+                "Link: <b>" + stats.links() + "</b>\n" +
+                "Total view: <b>" + stats.views() + "</b>\n" +
+                "Delivery hari ini: <b>" + stats.deliveriesToday() + "</b>\n" +
+                "Channel aktif: <b>" + stats.activeChannels() + "</b>";
+    }
+}
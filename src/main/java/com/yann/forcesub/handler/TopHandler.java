@@ -0,0 +1,60 @@
+package com.yann.forcesub.handler;
+
+import com.yann.forcesub.service.AdminService;
+import com.yann.forcesub.service.LeaderboardService;
+import com.yann.forcesub.service.TextService;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import com.yann.forcesub.util.TopK;
+import it.tdlight.client.CommandHandler;
+import it.tdlight.jni.TdApi;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /top}: link dengan view terbanyak, dibaca dari leaderboard di memori tanpa query Mongo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TopHandler implements CommandHandler {
+
+    private final AdminService adminService;
+    private final LeaderboardService leaderboardService;
+    private final HandleMessageGenerator handleMessageGenerator;
+    private final MessageTextSender messageTextSender;
+    private final TextService textService;
+
+    @Override
+    public void onCommand(TdApi.Chat chat, TdApi.MessageSender commandSender, String arguments) {
+        adminService.isAdmin(chat.id)
+                .filter(isAdmin -> {
+                    if (!isAdmin) {
+                        messageTextSender.send(textService.get("common.unauthorized"), chat.id);
+                    }
+                    return isAdmin;
+                })
+                .flatMap(isAdmin -> handleMessageGenerator.botUsername())
+                .subscribe(
+                        username -> messageTextSender.send(render(leaderboardService.top(), username), chat.id),
+                        error -> log.error("Error handling top command", error)
+                );
+    }
+
+    private static String render(List<TopK.Entry> entries, String username) {
+        if (entries.isEmpty()) {
+            return "📊 Belum ada link yang pernah dibuka.";
+        }
+        StringBuilder text = new StringBuilder("📊 <b>Top Link</b>\n\n");
+        for (int i = 0; i < entries.size(); i++) {
+            TopK.Entry entry = entries.get(i);
+            text.append(i + 1).append(". <a href=\"")
+                    .append(HandleMessageGenerator.link(username, entry.key()))
+                    .append("\">").append(entry.key()).append("</a> — <b>")
+                    .append(entry.score()).append("</b> view\n");
+        }
+        return text.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package com.yann.forcesub.manager;
 
+import com.yann.forcesub.service.ActiveUserService;
 import it.tdlight.client.SimpleTelegramClient;
 import it.tdlight.jni.TdApi;
 import jakarta.annotation.PostConstruct;
@@ -19,6 +20,7 @@ import java.util.Map;
 public class CallbackDispatcher {
 
     private final ApplicationContext context;
+    private final ActiveUserService activeUserService;
     private final Map<String, CallbackHandler> exactCallback = new HashMap<>();
     private final Map<String, CallbackHandler> startWithCallback = new HashMap<>();
 
@@ -40,6 +42,7 @@ public class CallbackDispatcher {
     }
 
     public void onCallbackQuery(TdApi.UpdateNewCallbackQuery update) {
+        activeUserService.recordActive(update.senderUserId);
         TdApi.CallbackQueryPayload payload = update.payload;
         if (payload instanceof TdApi.CallbackQueryPayloadData data) {
             String payloadData = new String(data.data, StandardCharsets.UTF_8);
@@ -0,0 +1,14 @@
+package com.yann.forcesub.repository;
+
+import com.yann.forcesub.entity.DeliveryEvent;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@Repository
+public interface DeliveryEventRepository extends ReactiveMongoRepository<DeliveryEvent, String>, DeliveryEventRepositoryCustom {
+
+    Mono<Long> countByOutcomeAndTimestampGreaterThanEqual(DeliveryEvent.Outcome outcome, Instant since);
+}
@@ -0,0 +1,35 @@
+package com.yann.forcesub.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Agregasi koleksi time-series deliveries.
+ */
+public interface DeliveryEventRepositoryCustom {
+
+    record DailyVolume(Instant day, long deliveries, long delivered, long messages) {
+    }
+
+    record LatencyPercentiles(long count, double p50, double p90, double p99) {
+    }
+
+    /**
+     * Buat koleksi time-series jika belum ada (insert pertama ke koleksi yang belum ada akan membuat koleksi biasa)
+     * dan pasang retensi: event yang lebih tua dari {@code retention} dihapus otomatis.
+     */
+    Mono<Void> ensureCollection(Duration retention);
+
+    /**
+     * Jumlah percobaan, pengiriman berhasil, dan pesan terkirim per hari (UTC) sejak {@code since}.
+     */
+    Flux<DailyVolume> dailyVolume(Instant since);
+
+    /**
+     * Persentil latency pengiriman yang berhasil sejak {@code since}; butuh MongoDB 7.0 ({@code $percentile}).
+     */
+    Mono<LatencyPercentiles> latencyPercentiles(Instant since);
+}
@@ -0,0 +1,84 @@
+package com.yann.forcesub.repository;
+
+import com.yann.forcesub.entity.DeliveryEvent;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class DeliveryEventRepositoryCustomImpl implements DeliveryEventRepositoryCustom {
+
+    private static final String COLLECTION = "deliveries";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> ensureCollection(Duration retention) {
+        // collMod juga berlaku untuk koleksi yang dibuat sebelum retensi ada
+        Mono<Document> expireAfter = mongoTemplate.executeCommand(new Document("collMod", COLLECTION)
+                .append("expireAfterSeconds", retention.toSeconds()));
+        return mongoTemplate.collectionExists(DeliveryEvent.class)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : mongoTemplate.createCollection(DeliveryEvent.class).then())
+                .then(expireAfter)
+                .then();
+    }
+
+    @Override
+    public Flux<DailyVolume> dailyVolume(Instant since) {
+        AggregationOperation group = context -> new Document("$group", new Document()
+                .append("_id", new Document("$dateTrunc", new Document("date", "$timestamp").append("unit", "day")))
+                .append("deliveries", new Document("$sum", 1))
+                .append("delivered", new Document("$sum", new Document("$cond",
+                        List.of(new Document("$eq", List.of("$outcome", DeliveryEvent.Outcome.DELIVERED.name())), 1, 0))))
+                .append("messages", new Document("$sum", "$messageCount")));
+        AggregationOperation sort = context -> new Document("$sort", new Document("_id", 1));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(since(since), group, sort), COLLECTION, Document.class)
+                .map(document -> new DailyVolume(
+                        document.getDate("_id").toInstant(),
+                        ((Number) document.get("deliveries")).longValue(),
+                        ((Number) document.get("delivered")).longValue(),
+                        ((Number) document.get("messages")).longValue()));
+    }
+
+    @Override
+    public Mono<LatencyPercentiles> latencyPercentiles(Instant since) {
+        AggregationOperation delivered = context -> new Document("$match",
+                new Document("outcome", DeliveryEvent.Outcome.DELIVERED.name()));
+        AggregationOperation group = context -> new Document("$group", new Document()
+                .append("_id", null)
+                .append("count", new Document("$sum", 1))
+                .append("latency", new Document("$percentile", new Document()
+                        .append("input", "$latencyMs")
+                        .append("p", List.of(0.5, 0.9, 0.99))
+                        .append("method", "approximate"))));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(since(since), delivered, group), COLLECTION, Document.class)
+                .next()
+                .map(document -> {
+                    List<?> latency = document.getList("latency", Object.class);
+                    return new LatencyPercentiles(
+                            ((Number) document.get("count")).longValue(),
+                            ((Number) latency.get(0)).doubleValue(),
+                            ((Number) latency.get(1)).doubleValue(),
+                            ((Number) latency.get(2)).doubleValue());
+                })
+                .defaultIfEmpty(new LatencyPercentiles(0, 0, 0, 0));
+    }
+
+    private static AggregationOperation since(Instant since) {
+        return context -> new Document("$match",
+                new Document("timestamp", new Document("$gte", Date.from(since))));
+    }
+}
@@ -1,16 +1,35 @@
 package com.yann.forcesub.repository;
 
 import com.yann.forcesub.entity.Message;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+
 @Repository
-public interface MessageRepository extends ReactiveMongoRepository<Message, String> {
+public interface MessageRepository extends ReactiveMongoRepository<Message, String>, MessageRepositoryCustom {
 
     Mono<Message> findById(String id);
     Mono<Void> deleteById(String id);
     Mono<Long> count();
-    Flux<Message> findTop10ByOrderByViewCountDesc();
+
+    Mono<Message> findFirstByContentKey(String contentKey);
+
+    @Query(value = "{ 'contentKey' : { '$exists' : true } }", fields = "{ 'contentKey' : 1 }")
+    Flux<Message> findAllContentKeys();
+
+    @Query(value = "{ 'dead' : true }", fields = "{ '_id' : 1 }")
+    Flux<Message> findAllDead();
+
+    @Query(value = "{}", fields = "{ '_id' : 1 }")
+    Flux<Message> findAllIds();
+
+    @Query(value = "{ 'createdAt' : { '$gte' : ?0 } }", fields = "{ '_id' : 1 }")
+    Flux<Message> findIdsCreatedSince(Instant since);
+
+    @Query(value = "{ 'createdAt' : { '$gte' : ?0 } }", fields = "{ '_id' : 1, 'contentKey' : 1 }")
+    Flux<Message> findKeysCreatedSince(Instant since);
 }
@@ -0,0 +1,71 @@
+package com.yann.forcesub.repository;
+
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Operasi khusus Mongo untuk koleksi messages yang tidak bisa diturunkan dari nama method.
+ */
+public interface MessageRepositoryCustom {
+
+    Mono<Void> ensureIndexes();
+
+    /**
+     * Ganti salinan konten pesan sumber di semua link yang memuatnya.
+     */
+    Mono<Long> updateStoredContent(long channelId, StoredContent content);
+
+    /**
+     * Hapus salinan konten dari link yang memuat pesan ini sehingga delivery kembali ke forward.
+     */
+    Mono<Long> clearStoredContent(long channelId, long messageId);
+
+    /**
+     * Buang id pesan yang dihapus dari semua link; link yang menjadi kosong ditandai dead.
+     * Mengembalikan token link yang baru saja mati.
+     */
+    Flux<String> removeSourceMessages(long channelId, List<Long> messageIds);
+
+    /**
+     * Bulk insert tanpa urutan. Dokumen yang bentrok di index unik contentKey tidak tersimpan dan posisinya
+     * di {@code messages} dikembalikan; bentrok {@code _id} berarti dokumen sudah tersimpan dan dianggap berhasil.
+     */
+    Mono<List<Integer>> insertUnordered(List<Message> messages);
+
+    /**
+     * Bulk upsert tanpa urutan untuk link hasil impor; dokumen yang sudah ada tidak ditimpa.
+     * Mengembalikan jumlah dokumen yang benar-benar baru.
+     */
+    Mono<Integer> importLinks(List<Message> messages);
+
+    /**
+     * {@code $inc viewCount}; mengembalikan id dan viewCount setelah ditambah.
+     */
+    Mono<Message> incrementViewCount(String token);
+
+    /**
+     * {@code $inc viewCount} hanya jika link belum kedaluwarsa dan {@code viewCount < maxUses}.
+     * Mengembalikan id dan viewCount baru, atau kosong jika link sudah habis atau tidak ada.
+     */
+    Mono<Message> claimUse(String token, Instant now);
+
+    /**
+     * Id dan viewCount link terpopuler; sort penuh, hanya untuk mengisi leaderboard saat belum ada checkpoint.
+     */
+    Flux<Message> topByViewCount(int limit);
+
+    /**
+     * Jumlah dokumen dari metadata koleksi ({@code estimatedDocumentCount}), tanpa scan.
+     */
+    Mono<Long> estimatedCount();
+
+    /**
+     * Total viewCount semua link; scan penuh, hanya untuk mengisi counter statistik saat startup.
+     */
+    Mono<Long> totalViews();
+}
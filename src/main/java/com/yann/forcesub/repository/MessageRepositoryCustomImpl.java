@@ -0,0 +1,219 @@
+package com.yann.forcesub.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> ensureIndexes() {
+        // index "contentKey" dari @Indexed versi lama bentrok dengan contentKey_unique
+        return mongoTemplate.indexOps(Message.class)
+                .getIndexInfo()
+                .filter(index -> index.getName().equals("contentKey"))
+                .flatMap(index -> mongoTemplate.indexOps(Message.class).dropIndex(index.getName()))
+                .then(mongoTemplate.indexOps(Message.class).createIndex(new Index()
+                        .on("contentKey", Sort.Direction.ASC)
+                        .unique()
+                        .sparse()
+                        .named("contentKey_unique")))
+                .then(mongoTemplate.indexOps(Message.class)
+                        .createIndex(new Index()
+                                .on("expiresAt", Sort.Direction.ASC)
+                                .expire(Duration.ZERO)
+                                .named("expiresAt_ttl")))
+                // refresh berkala antar replica membaca link baru lewat createdAt
+                .then(mongoTemplate.indexOps(Message.class)
+                        .createIndex(new Index()
+                                .on("createdAt", Sort.Direction.ASC)
+                                .named("createdAt")))
+                // edit/hapus pesan di channel database mencari link lewat id pesan sumber
+                .then(mongoTemplate.indexOps(Message.class)
+                        .createIndex(new Index()
+                                .on("channelId", Sort.Direction.ASC)
+                                .on("messageIds", Sort.Direction.ASC)
+                                .named("channelId_messageIds")))
+                .then(mongoTemplate.indexOps(Message.class)
+                        .createIndex(new Index()
+                                .on("channelId", Sort.Direction.ASC)
+                                .on("contents.messageId", Sort.Direction.ASC)
+                                .named("channelId_contents_messageId")))
+                .then();
+    }
+
+    @Override
+    public Mono<Long> updateStoredContent(long channelId, StoredContent content) {
+        Update update = new Update()
+                .set("contents.$.type", content.getType())
+                .set("contents.$.fileId", content.getFileId())
+                .set("contents.$.text", content.getText())
+                .set("contents.$.entities", content.getEntities());
+        return mongoTemplate.updateMulti(containing(channelId, content.getMessageId()), update, Message.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Mono<Long> clearStoredContent(long channelId, long messageId) {
+        return mongoTemplate.updateMulti(containing(channelId, messageId), new Update().unset("contents"), Message.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Flux<String> removeSourceMessages(long channelId, List<Long> messageIds) {
+        Query affected = Query.query(Criteria.where("channelId").is(channelId).and("messageIds").in(messageIds));
+        Update pull = new Update()
+                .pullAll("messageIds", messageIds.toArray())
+                .pull("contents", new Document("messageId", new Document("$in", messageIds)));
+
+        Query emptied = Query.query(Criteria.where("channelId").is(channelId)
+                .and("messageIds").size(0)
+                .and("dead").ne(true));
+        emptied.fields().include("id");
+
+        return mongoTemplate.updateMulti(affected, pull, Message.class)
+                .thenMany(mongoTemplate.find(emptied, Message.class))
+                .map(Message::getId)
+                .collectList()
+                .flatMapMany(tokens -> tokens.isEmpty()
+                        ? Flux.empty()
+                        : mongoTemplate.updateMulti(
+                                        Query.query(Criteria.where("id").in(tokens)),
+                                        new Update().set("dead", true).unset("contentKey"),
+                                        Message.class)
+                                .thenMany(Flux.fromIterable(tokens)));
+    }
+
+    @Override
+    public Mono<List<Integer>> insertUnordered(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class)
+                .insert(messages)
+                .execute()
+                .map(result -> List.<Integer>of())
+                .onErrorResume(e -> writeErrors(e) != null, e -> {
+                    List<Integer> collided = new ArrayList<>();
+                    for (BulkWriteError error : writeErrors(e)) {
+                        if (error.getCode() != DUPLICATE_KEY) {
+                            return Mono.error(e);
+                        }
+                        if (error.getMessage() != null && error.getMessage().contains("contentKey")) {
+                            collided.add(error.getIndex());
+                        }
+                    }
+                    return Mono.just(collided);
+                });
+    }
+
+    @Override
+    public Mono<Integer> importLinks(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return Mono.just(0);
+        }
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+        for (Message message : messages) {
+            bulk.upsert(Query.query(Criteria.where("id").is(message.getId())), new Update()
+                    .setOnInsert("channelId", message.getChannelId())
+                    .setOnInsert("messageIds", message.getMessageIds())
+                    .setOnInsert("contentRestricted", message.isContentRestricted())
+                    .setOnInsert("viewCount", message.getViewCount())
+                    .setOnInsert("validated", false)
+                    .setOnInsert("createdAt", message.getCreatedAt()));
+        }
+        return bulk.execute().map(result -> result.getUpserts().size());
+    }
+
+    // exception translator bisa membungkus MongoBulkWriteException sebagai DuplicateKeyException atau BulkOperationException
+    private static List<BulkWriteError> writeErrors(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulk && bulk.getWriteConcernError() == null) {
+                return bulk.getWriteErrors();
+            }
+            if (cause instanceof BulkOperationException bulk) {
+                return bulk.getErrors();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Mono<Message> incrementViewCount(String token) {
+        Query query = Query.query(Criteria.where("id").is(token));
+        query.fields().include("viewCount");
+        return mongoTemplate.findAndModify(query, new Update().inc("viewCount", 1),
+                FindAndModifyOptions.options().returnNew(true), Message.class);
+    }
+
+    @Override
+    public Mono<Message> claimUse(String token, Instant now) {
+        Query query = new BasicQuery(new Document("_id", token)
+                .append("$expr", new Document("$lt", List.of("$viewCount", "$maxUses")))
+                .append("$or", List.of(
+                        new Document("expiresAt", null),
+                        new Document("expiresAt", new Document("$gt", Date.from(now))))),
+                new Document("viewCount", 1));
+        return mongoTemplate.findAndModify(query, new Update().inc("viewCount", 1),
+                FindAndModifyOptions.options().returnNew(true), Message.class);
+    }
+
+    @Override
+    public Flux<Message> topByViewCount(int limit) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "viewCount"))
+                .limit(limit);
+        query.fields().include("viewCount");
+        return mongoTemplate.find(query, Message.class);
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return mongoTemplate.estimatedCount(Message.class);
+    }
+
+    @Override
+    public Mono<Long> totalViews() {
+        AggregationOperation group = context -> new Document("$group", new Document("_id", null)
+                .append("views", new Document("$sum", "$viewCount")));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(group), Message.class, Document.class)
+                .next()
+                .map(document -> ((Number) document.get("views")).longValue())
+                .defaultIfEmpty(0L);
+    }
+
+    private static Query containing(long channelId, long messageId) {
+        return Query.query(Criteria.where("channelId").is(channelId)
+                .and("contents.messageId").is(messageId));
+    }
+}
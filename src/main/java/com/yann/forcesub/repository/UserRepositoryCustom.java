@@ -0,0 +1,26 @@
+package com.yann.forcesub.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Operasi khusus Mongo untuk koleksi users.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Bulk upsert tanpa urutan; user yang sudah ada tidak diubah. Mengembalikan jumlah user baru.
+     */
+    Mono<Integer> upsertAll(Collection<Long> ids);
+
+    /**
+     * Jumlah dokumen dari metadata koleksi ({@code estimatedDocumentCount}), tanpa scan.
+     */
+    Mono<Long> estimatedCount();
+
+    /**
+     * Menghapus satu user; mengembalikan jumlah dokumen yang benar-benar terhapus (0 atau 1).
+     */
+    Mono<Long> removeById(Long id);
+}
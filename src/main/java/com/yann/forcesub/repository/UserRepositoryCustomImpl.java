@@ -0,0 +1,46 @@
+package com.yann.forcesub.repository;
+
+import com.mongodb.client.result.DeleteResult;
+import com.yann.forcesub.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Integer> upsertAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (Long id : ids) {
+            bulk.upsert(Query.query(Criteria.where("id").is(id)), new Update().setOnInsert("id", id));
+        }
+        return bulk.execute().map(result -> result.getUpserts().size());
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return mongoTemplate.estimatedCount(User.class);
+    }
+
+    @Override
+    public Mono<Long> removeById(Long id) {
+        if (id == null) {
+            return Mono.error(new IllegalArgumentException("User id must not be null"));
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("id").is(id)), User.class)
+                .map(DeleteResult::getDeletedCount);
+    }
+}
@@ -0,0 +1,258 @@
+package com.yann.forcesub.repository.convert;
+
+import com.yann.forcesub.entity.Channel;
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.entity.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Konversi tulis-tangan Document ↔ entity untuk koleksi yang paling sering dibaca (messages, channels, users),
+ * menggantikan jalur reflektif {@code MappingMongoConverter}. Nama field dan tipe BSON sama persis dengan hasil
+ * mapping lama, sehingga dokumen lama dan baru bisa dibaca kedua jalur. Field yang tidak ada di dokumen
+ * (projection) dibiarkan default seperti pada mapping reflektif.
+ * <p>
+ * Diukur dengan {@code EntityConverterBenchmark}.
+ */
+public final class EntityConverters {
+
+    private EntityConverters() {
+    }
+
+    public static List<Converter<?, ?>> converters() {
+        return List.of(
+                MessageReader.INSTANCE, MessageWriter.INSTANCE,
+                ChannelReader.INSTANCE, ChannelWriter.INSTANCE,
+                UserReader.INSTANCE, UserWriter.INSTANCE
+        );
+    }
+
+    @ReadingConverter
+    public enum MessageReader implements Converter<Document, Message> {
+        INSTANCE;
+
+        @Override
+        public Message convert(Document source) {
+            Message.MessageBuilder builder = Message.builder()
+                    .id(readId(source.get("_id")))
+                    .channelId(toLong(source.get("channelId")))
+                    .messageIds(toLongs(source.get("messageIds")))
+                    .contents(toContents(source.get("contents")))
+                    .contentKey(source.getString("contentKey"))
+                    .dead(Boolean.TRUE.equals(source.get("dead")))
+                    .expiresAt(toInstant(source.get("expiresAt")))
+                    .maxUses(toInteger(source.get("maxUses")))
+                    .createdAt(toInstant(source.get("createdAt")));
+
+            // @Builder.Default hanya ditimpa jika field ada di dokumen
+            if (source.get("contentRestricted") instanceof Boolean restricted) {
+                builder.contentRestricted(restricted);
+            }
+            if (source.get("viewCount") instanceof Number viewCount) {
+                builder.viewCount(viewCount.intValue());
+            }
+            if (source.get("validated") instanceof Boolean validated) {
+                builder.validated(validated);
+            }
+            return builder.build();
+        }
+    }
+
+    @WritingConverter
+    public enum MessageWriter implements Converter<Message, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(Message source) {
+            Document document = new Document();
+            putIfNotNull(document, "_id", writeId(source.getId()));
+            putIfNotNull(document, "channelId", source.getChannelId());
+            putIfNotNull(document, "messageIds", source.getMessageIds());
+            if (source.getContents() != null) {
+                List<Document> contents = new ArrayList<>(source.getContents().size());
+                for (StoredContent content : source.getContents()) {
+                    contents.add(writeContent(content));
+                }
+                document.put("contents", contents);
+            }
+            document.put("contentRestricted", source.isContentRestricted());
+            putIfNotNull(document, "viewCount", source.getViewCount());
+            putIfNotNull(document, "contentKey", source.getContentKey());
+            document.put("validated", source.isValidated());
+            document.put("dead", source.isDead());
+            putIfNotNull(document, "expiresAt", toDate(source.getExpiresAt()));
+            putIfNotNull(document, "maxUses", source.getMaxUses());
+            putIfNotNull(document, "createdAt", toDate(source.getCreatedAt()));
+            return document;
+        }
+    }
+
+    @ReadingConverter
+    public enum ChannelReader implements Converter<Document, Channel> {
+        INSTANCE;
+
+        @Override
+        public Channel convert(Document source) {
+            return new Channel(
+                    toLong(source.get("_id")),
+                    source.getString("channelLinks"),
+                    source.getString("placeholder"),
+                    Boolean.TRUE.equals(source.get("isActive")),
+                    source.getString("name")
+            );
+        }
+    }
+
+    @WritingConverter
+    public enum ChannelWriter implements Converter<Channel, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(Channel source) {
+            Document document = new Document();
+            putIfNotNull(document, "_id", source.getId());
+            putIfNotNull(document, "channelLinks", source.getChannelLinks());
+            putIfNotNull(document, "placeholder", source.getPlaceholder());
+            document.put("isActive", source.isActive());
+            putIfNotNull(document, "name", source.getName());
+            return document;
+        }
+    }
+
+    @ReadingConverter
+    public enum UserReader implements Converter<Document, User> {
+        INSTANCE;
+
+        @Override
+        public User convert(Document source) {
+            return new User(toLong(source.get("_id")));
+        }
+    }
+
+    @WritingConverter
+    public enum UserWriter implements Converter<User, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(User source) {
+            Document document = new Document();
+            putIfNotNull(document, "_id", source.getId());
+            return document;
+        }
+    }
+
+    private static List<StoredContent> toContents(Object value) {
+        if (!(value instanceof List<?> list)) return null;
+        List<StoredContent> contents = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (item instanceof Document document) {
+                contents.add(readContent(document));
+            }
+        }
+        return contents;
+    }
+
+    private static StoredContent readContent(Document source) {
+        List<StoredContent.Span> entities = null;
+        if (source.get("entities") instanceof List<?> list) {
+            entities = new ArrayList<>(list.size());
+            for (Object item : list) {
+                if (item instanceof Document span) {
+                    entities.add(new StoredContent.Span(
+                            toInt(span.get("offset")),
+                            toInt(span.get("length")),
+                            span.getString("type"),
+                            span.getString("url")
+                    ));
+                }
+            }
+        }
+        Long mediaAlbumId = toLong(source.get("mediaAlbumId"));
+        return new StoredContent(
+                toLong(source.get("messageId")),
+                mediaAlbumId != null ? mediaAlbumId : 0L,
+                source.getString("type"),
+                source.getString("fileId"),
+                source.getString("text"),
+                entities
+        );
+    }
+
+    private static Document writeContent(StoredContent source) {
+        Document document = new Document();
+        putIfNotNull(document, "messageId", source.getMessageId());
+        document.put("mediaAlbumId", source.getMediaAlbumId());
+        putIfNotNull(document, "type", source.getType());
+        putIfNotNull(document, "fileId", source.getFileId());
+        putIfNotNull(document, "text", source.getText());
+        if (source.getEntities() != null) {
+            List<Document> entities = new ArrayList<>(source.getEntities().size());
+            for (StoredContent.Span span : source.getEntities()) {
+                Document entity = new Document()
+                        .append("offset", span.getOffset())
+                        .append("length", span.getLength());
+                putIfNotNull(entity, "type", span.getType());
+                putIfNotNull(entity, "url", span.getUrl());
+                entities.add(entity);
+            }
+            document.put("entities", entities);
+        }
+        return document;
+    }
+
+    // sama seperti mapping reflektif: id String berbentuk hex ObjectId (token lama) disimpan sebagai ObjectId
+    private static Object writeId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static String readId(Object value) {
+        if (value instanceof ObjectId objectId) return objectId.toHexString();
+        return value != null ? value.toString() : null;
+    }
+
+    private static List<Long> toLongs(Object value) {
+        if (!(value instanceof List<?> list)) return null;
+        List<Long> longs = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (item instanceof Number number) {
+                longs.add(number.longValue());
+            }
+        }
+        return longs;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private static Integer toInteger(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    private static int toInt(Object value) {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static Instant toInstant(Object value) {
+        return value instanceof Date date ? date.toInstant() : null;
+    }
+
+    private static Date toDate(Instant value) {
+        return value != null ? Date.from(value) : null;
+    }
+
+    private static void putIfNotNull(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+}
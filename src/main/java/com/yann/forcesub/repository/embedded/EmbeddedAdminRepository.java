@@ -0,0 +1,17 @@
+package com.yann.forcesub.repository.embedded;
+
+import com.yann.forcesub.entity.Admin;
+import com.yann.forcesub.repository.AdminRepository;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Profile("embedded")
+@DependsOn("mongoSnapshotImporter")
+public class EmbeddedAdminRepository extends EmbeddedRepository<Admin, Long> implements AdminRepository {
+
+    public EmbeddedAdminRepository(EmbeddedStore store) {
+        super(store.map(EmbeddedStore.ADMINS), Admin::getId);
+    }
+}
@@ -0,0 +1,23 @@
+package com.yann.forcesub.repository.embedded;
+
+import com.yann.forcesub.entity.AppSetting;
+import com.yann.forcesub.repository.AppSettingRepository;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+@Profile("embedded")
+@DependsOn("mongoSnapshotImporter")
+public class EmbeddedAppSettingRepository extends EmbeddedRepository<AppSetting, String> implements AppSettingRepository {
+
+    public EmbeddedAppSettingRepository(EmbeddedStore store) {
+        super(store.map(EmbeddedStore.SETTINGS), AppSetting::getKey);
+    }
+
+    @Override
+    public Flux<AppSetting> getAppSettingByKey(String key) {
+        return findById(key).flux();
+    }
+}
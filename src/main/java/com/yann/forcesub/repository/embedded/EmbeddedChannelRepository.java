@@ -0,0 +1,24 @@
+package com.yann.forcesub.repository.embedded;
+
+import com.yann.forcesub.entity.Channel;
+import com.yann.forcesub.repository.ChannelRepository;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+@Profile("embedded")
+@DependsOn("mongoSnapshotImporter")
+public class EmbeddedChannelRepository extends EmbeddedRepository<Channel, Long> implements ChannelRepository {
+
+    public EmbeddedChannelRepository(EmbeddedStore store) {
+        super(store.map(EmbeddedStore.CHANNELS), Channel::getId);
+    }
+
+    @Override
+    public Flux<Channel> findAllByIsActiveIs(boolean isActive) {
+        return Flux.defer(() -> Flux.fromStream(values().stream()
+                .filter(channel -> channel.isActive() == isActive)));
+    }
+}
@@ -0,0 +1,163 @@
+package com.yann.forcesub.repository.embedded;
+
+import com.yann.forcesub.entity.DeliveryEvent;
+import com.yann.forcesub.repository.DeliveryEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deliveries di MVStore dengan key ObjectId (urut waktu). Agregasi dihitung dengan scan di memori; retensi
+ * menggantikan {@code expireAfterSeconds} dengan sweeper yang membuang key paling awal sampai batas retensi.
+ */
+@Slf4j
+@Repository
+@Profile("embedded")
+@DependsOn("mongoSnapshotImporter")
+public class EmbeddedDeliveryEventRepository extends EmbeddedRepository<DeliveryEvent, String> implements DeliveryEventRepository {
+
+    private static final int SWEEP_MINUTES = 60;
+
+    private volatile Duration retention;
+
+    private ScheduledExecutorService scheduler;
+
+    public EmbeddedDeliveryEventRepository(EmbeddedStore store) {
+        super(store.map(EmbeddedStore.DELIVERIES), DeliveryEvent::getId);
+    }
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "embedded-deliveries");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                this::sweepExpired,
+                SWEEP_MINUTES,
+                SWEEP_MINUTES,
+                TimeUnit.MINUTES
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public <S extends DeliveryEvent> Mono<S> insert(S entity) {
+        if (entity.getId() == null) {
+            entity.setId(new ObjectId().toHexString());
+        }
+        return super.insert(entity);
+    }
+
+    @Override
+    public <S extends DeliveryEvent> Mono<S> save(S entity) {
+        if (entity.getId() == null) {
+            entity.setId(new ObjectId().toHexString());
+        }
+        return super.save(entity);
+    }
+
+    @Override
+    public Mono<Long> countByOutcomeAndTimestampGreaterThanEqual(DeliveryEvent.Outcome outcome, Instant since) {
+        return Mono.fromCallable(() -> values().stream()
+                .filter(event -> event.getOutcome() == outcome)
+                .filter(event -> event.getTimestamp() != null && !event.getTimestamp().isBefore(since))
+                .count());
+    }
+
+    @Override
+    public Mono<Void> ensureCollection(Duration retention) {
+        return Mono.fromRunnable(() -> {
+            this.retention = retention;
+            sweepExpired();
+        });
+    }
+
+    @Override
+    public Flux<DailyVolume> dailyVolume(Instant since) {
+        return Flux.defer(() -> {
+            Map<Instant, long[]> days = new TreeMap<>();
+            for (DeliveryEvent event : values()) {
+                if (event.getTimestamp() == null || event.getTimestamp().isBefore(since)) continue;
+                Instant day = event.getTimestamp().atOffset(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS).toInstant();
+                long[] totals = days.computeIfAbsent(day, d -> new long[3]);
+                totals[0]++;
+                if (event.getOutcome() == DeliveryEvent.Outcome.DELIVERED) totals[1]++;
+                totals[2] += event.getMessageCount();
+            }
+            return Flux.fromIterable(days.entrySet())
+                    .map(entry -> new DailyVolume(entry.getKey(), entry.getValue()[0], entry.getValue()[1], entry.getValue()[2]));
+        });
+    }
+
+    @Override
+    public Mono<LatencyPercentiles> latencyPercentiles(Instant since) {
+        return Mono.fromCallable(() -> {
+            long[] latencies = values().stream()
+                    .filter(event -> event.getOutcome() == DeliveryEvent.Outcome.DELIVERED)
+                    .filter(event -> event.getTimestamp() != null && !event.getTimestamp().isBefore(since))
+                    .mapToLong(DeliveryEvent::getLatencyMs)
+                    .sorted()
+                    .toArray();
+            if (latencies.length == 0) {
+                return new LatencyPercentiles(0, 0, 0, 0);
+            }
+            return new LatencyPercentiles(latencies.length,
+                    rank(latencies, 0.5), rank(latencies, 0.9), rank(latencies, 0.99));
+        });
+    }
+
+    private void sweepExpired() {
+        Duration current = retention;
+        if (current == null) return;
+        try {
+            // hex ObjectId diawali 8 digit detik epoch, jadi urutan key = urutan waktu
+            String cutoff = String.format("%08x", Instant.now().minus(current).getEpochSecond());
+            List<String> expired = new ArrayList<>();
+            for (Iterator<String> keys = map.keyIterator(null); keys.hasNext(); ) {
+                String key = keys.next();
+                if (key.compareTo(cutoff) >= 0) break;
+                expired.add(key);
+            }
+            expired.forEach(map::remove);
+            if (!expired.isEmpty()) {
+                log.info("Removed {} delivery events older than {} days", expired.size(), current.toDays());
+            }
+        } catch (Exception e) {
+            log.error("Failed to sweep expired delivery events", e);
+        }
+    }
+
+    // nearest-rank
+    private static double rank(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
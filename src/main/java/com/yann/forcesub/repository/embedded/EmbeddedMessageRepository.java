@@ -0,0 +1,495 @@
+package com.yann.forcesub.repository.embedded;
+
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.MVMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koleksi messages di MVStore. Index unik {@code contentKey} disimpan sebagai map kedua
+ * (contentKey → token), dan TTL index diganti sweeper berkala yang menghapus link kedaluwarsa.
+ * Edit/hapus di channel database dan sweeper membaca index {@code channelId:messageId:token} dan
+ * {@code expiresAt:token} (key terurut, value kosong) sehingga tidak pernah scan seluruh koleksi.
+ * Semua penulisan di-serialize lewat lock repository agar semua map tetap konsisten; entry index yang
+ * basi dicek ulang terhadap dokumen dan dibuang.
+ */
+@Slf4j
+@Repository
+@Profile("embedded")
+@DependsOn("mongoSnapshotImporter")
+public class EmbeddedMessageRepository extends EmbeddedRepository<Message, String> implements MessageRepository {
+
+    private final MVMap<String, String> contentKeys;
+    private final MVMap<String, String> sources;
+    private final MVMap<String, String> expiry;
+
+    @Value("${forcesub.embedded.expiry.sweep.minutes:1}")
+    private int sweepMinutes;
+
+    private ScheduledExecutorService scheduler;
+
+    public EmbeddedMessageRepository(EmbeddedStore store) {
+        super(store.map(EmbeddedStore.MESSAGES), Message::getId);
+        this.contentKeys = store.map(EmbeddedStore.MESSAGE_CONTENT_KEYS);
+        this.sources = store.map(EmbeddedStore.MESSAGE_SOURCES);
+        this.expiry = store.map(EmbeddedStore.MESSAGE_EXPIRY);
+    }
+
+    @PostConstruct
+    public void init() {
+        // store lama atau hasil MongoSnapshotImporter belum punya index sumber/expiry
+        if (sources.isEmpty() && !map.isEmpty()) {
+            synchronized (this) {
+                map.values().forEach(this::index);
+            }
+            log.info("Built source and expiry indexes for {} embedded links", map.size());
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "embedded-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                this::sweepExpired,
+                sweepMinutes,
+                sweepMinutes,
+                TimeUnit.MINUTES
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public <S extends Message> Mono<S> save(S entity) {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                put(entity);
+            }
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends Message> Mono<S> insert(S entity) {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                if (map.containsKey(requireId(entity))) {
+                    throw new DuplicateKeyException("Duplicate id " + entity.getId());
+                }
+                put(entity);
+            }
+            return entity;
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> {
+            synchronized (this) {
+                remove(id);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return Mono.fromRunnable(() -> {
+            synchronized (this) {
+                ids.forEach(this::remove);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(() -> {
+            synchronized (this) {
+                map.clear();
+                contentKeys.clear();
+                sources.clear();
+                expiry.clear();
+            }
+        });
+    }
+
+    @Override
+    public Mono<Message> findFirstByContentKey(String contentKey) {
+        return Mono.fromCallable(() -> {
+            String token = contentKeys.get(contentKey);
+            return token != null ? map.get(token) : null;
+        });
+    }
+
+    @Override
+    public Flux<Message> findAllContentKeys() {
+        return Flux.defer(() -> Flux.fromIterable(new ArrayList<>(contentKeys.entrySet())))
+                .map(entry -> Message.builder().id(entry.getValue()).contentKey(entry.getKey()).build());
+    }
+
+    @Override
+    public Flux<Message> findAllDead() {
+        return Flux.defer(() -> Flux.fromStream(values().stream().filter(Message::isDead)))
+                .map(message -> Message.builder().id(message.getId()).build());
+    }
+
+    @Override
+    public Flux<Message> findAllIds() {
+        return Flux.defer(() -> Flux.fromIterable(new ArrayList<>(map.keySet())))
+                .map(id -> Message.builder().id(id).build());
+    }
+
+    @Override
+    public Flux<Message> findIdsCreatedSince(Instant since) {
+        return Flux.defer(() -> Flux.fromStream(values().stream()
+                        .filter(message -> message.getCreatedAt() != null && !message.getCreatedAt().isBefore(since))))
+                .map(message -> Message.builder().id(message.getId()).build());
+    }
+
+    @Override
+    public Flux<Message> findKeysCreatedSince(Instant since) {
+        return Flux.defer(() -> Flux.fromStream(values().stream()
+                        .filter(message -> message.getCreatedAt() != null && !message.getCreatedAt().isBefore(since))))
+                .map(message -> Message.builder().id(message.getId()).contentKey(message.getContentKey()).build());
+    }
+
+    @Override
+    public Mono<Void> ensureIndexes() {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Long> updateStoredContent(long channelId, StoredContent content) {
+        return Mono.fromCallable(() -> {
+            long modified = 0;
+            synchronized (this) {
+                for (Message message : linksContaining(channelId, List.of(content.getMessageId()))) {
+                    if (message.getContents() == null) continue;
+                    boolean changed = false;
+                    for (StoredContent stored : message.getContents()) {
+                        if (Objects.equals(stored.getMessageId(), content.getMessageId())) {
+                            stored.setType(content.getType());
+                            stored.setFileId(content.getFileId());
+                            stored.setText(content.getText());
+                            stored.setEntities(content.getEntities());
+                            changed = true;
+                        }
+                    }
+                    if (changed) {
+                        map.put(message.getId(), message);
+                        modified++;
+                    }
+                }
+            }
+            return modified;
+        });
+    }
+
+    @Override
+    public Mono<Long> clearStoredContent(long channelId, long messageId) {
+        return Mono.fromCallable(() -> {
+            long modified = 0;
+            synchronized (this) {
+                for (Message message : linksContaining(channelId, List.of(messageId))) {
+                    if (message.getContents() != null
+                            && message.getContents().stream().anyMatch(c -> Objects.equals(c.getMessageId(), messageId))) {
+                        message.setContents(null);
+                        map.put(message.getId(), message);
+                        modified++;
+                    }
+                }
+            }
+            return modified;
+        });
+    }
+
+    @Override
+    public Flux<String> removeSourceMessages(long channelId, List<Long> messageIds) {
+        return Mono.fromCallable(() -> {
+            Set<Long> removed = Set.copyOf(messageIds);
+            List<String> deadTokens = new ArrayList<>();
+            synchronized (this) {
+                for (Message message : linksContaining(channelId, messageIds)) {
+                    for (Long id : message.getMessageIds()) {
+                        if (removed.contains(id)) {
+                            sources.remove(sourceKey(channelId, id, message.getId()));
+                        }
+                    }
+                    message.setMessageIds(message.getMessageIds().stream()
+                            .filter(id -> !removed.contains(id))
+                            .toList());
+                    if (message.getContents() != null) {
+                        message.setContents(message.getContents().stream()
+                                .filter(c -> !removed.contains(c.getMessageId()))
+                                .toList());
+                    }
+                    if (message.getMessageIds().isEmpty() && !message.isDead()) {
+                        markDead(message);
+                        deadTokens.add(message.getId());
+                    }
+                    map.put(message.getId(), message);
+                }
+            }
+            return deadTokens;
+        }).flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Mono<List<Integer>> insertUnordered(List<Message> messages) {
+        return Mono.fromCallable(() -> {
+            List<Integer> collided = new ArrayList<>();
+            synchronized (this) {
+                for (int i = 0; i < messages.size(); i++) {
+                    Message message = messages.get(i);
+                    if (map.containsKey(requireId(message))) continue;
+                    String owner = message.getContentKey() != null ? contentKeys.get(message.getContentKey()) : null;
+                    if (owner != null && !owner.equals(message.getId())) {
+                        collided.add(i);
+                        continue;
+                    }
+                    put(message);
+                }
+            }
+            return collided;
+        });
+    }
+
+    @Override
+    public Mono<Integer> importLinks(List<Message> messages) {
+        return Mono.fromCallable(() -> {
+            int inserted = 0;
+            synchronized (this) {
+                for (Message message : messages) {
+                    if (map.containsKey(message.getId())) continue;
+                    Message imported = Message.builder()
+                            .id(message.getId())
+                            .channelId(message.getChannelId())
+                            .messageIds(message.getMessageIds())
+                            .contentRestricted(message.isContentRestricted())
+                            .viewCount(message.getViewCount())
+                            .validated(false)
+                            .createdAt(message.getCreatedAt())
+                            .build();
+                    map.put(imported.getId(), imported);
+                    index(imported);
+                    inserted++;
+                }
+            }
+            return inserted;
+        });
+    }
+
+    @Override
+    public Mono<Message> incrementViewCount(String token) {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                Message message = map.get(token);
+                if (message == null) return null;
+                return increment(message);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Message> claimUse(String token, Instant now) {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                Message message = map.get(token);
+                if (message == null || message.getMaxUses() == null
+                        || message.isExhausted() || message.isExpired(now)) {
+                    return null;
+                }
+                return increment(message);
+            }
+        });
+    }
+
+    @Override
+    public Flux<Message> topByViewCount(int limit) {
+        return Flux.defer(() -> Flux.fromStream(values().stream()
+                        .sorted(Comparator.comparing(Message::getViewCount,
+                                Comparator.nullsFirst(Comparator.<Integer>naturalOrder())).reversed())
+                        .limit(limit)))
+                .map(message -> Message.builder().id(message.getId()).viewCount(message.getViewCount()).build());
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return count();
+    }
+
+    @Override
+    public Mono<Long> totalViews() {
+        return Mono.fromCallable(() -> values().stream()
+                .mapToLong(message -> message.getViewCount() == null ? 0 : message.getViewCount())
+                .sum());
+    }
+
+    private void sweepExpired() {
+        Instant now = Instant.now();
+        String until = expiryKey(now, "");
+        int removed = 0;
+        try {
+            synchronized (this) {
+                List<String> due = new ArrayList<>();
+                for (Iterator<String> keys = expiry.keyIterator(null); keys.hasNext(); ) {
+                    String key = keys.next();
+                    if (key.compareTo(until) > 0) break;
+                    due.add(key);
+                }
+                for (String key : due) {
+                    expiry.remove(key);
+                    String token = key.substring(key.indexOf(':') + 1);
+                    Message message = map.get(token);
+                    if (message != null && message.isExpired(now)) {
+                        remove(token);
+                        removed++;
+                    }
+                }
+            }
+            if (removed > 0) {
+                log.info("Removed {} expired links", removed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to sweep expired links", e);
+        }
+    }
+
+    private Message increment(Message message) {
+        int viewCount = message.getViewCount() == null ? 0 : message.getViewCount();
+        message.setViewCount(viewCount + 1);
+        map.put(message.getId(), message);
+        return Message.builder().id(message.getId()).viewCount(message.getViewCount()).build();
+    }
+
+    private void markDead(Message message) {
+        if (message.getContentKey() != null) {
+            contentKeys.remove(message.getContentKey(), message.getId());
+        }
+        message.setDead(true);
+        message.setContentKey(null);
+        map.put(message.getId(), message);
+    }
+
+    // dipanggil di dalam lock
+    private void put(Message message) {
+        if (message.getCreatedAt() == null) {
+            message.setCreatedAt(Instant.now());
+        }
+        String id = requireId(message);
+        String contentKey = message.getContentKey();
+        if (contentKey != null) {
+            String owner = contentKeys.get(contentKey);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException("Duplicate contentKey " + contentKey);
+            }
+        }
+        Message previous = map.get(id);
+        if (previous != null) {
+            unindex(previous);
+        }
+        map.put(id, message);
+        if (previous != null && previous.getContentKey() != null && !previous.getContentKey().equals(contentKey)) {
+            contentKeys.remove(previous.getContentKey(), id);
+        }
+        if (contentKey != null) {
+            contentKeys.put(contentKey, id);
+        }
+        index(message);
+    }
+
+    // dipanggil di dalam lock
+    private void remove(String id) {
+        Message previous = map.remove(id);
+        if (previous == null) return;
+        if (previous.getContentKey() != null) {
+            contentKeys.remove(previous.getContentKey(), id);
+        }
+        unindex(previous);
+    }
+
+    // dipanggil di dalam lock
+    private List<Message> linksContaining(long channelId, List<Long> messageIds) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Long messageId : messageIds) {
+            String prefix = channelId + ":" + messageId + ":";
+            for (Iterator<String> keys = sources.keyIterator(prefix); keys.hasNext(); ) {
+                String key = keys.next();
+                if (!key.startsWith(prefix)) break;
+                tokens.add(key.substring(prefix.length()));
+            }
+        }
+        List<Message> links = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Message message = map.get(token);
+            if (message != null && isFrom(message, channelId) && message.getMessageIds() != null
+                    && message.getMessageIds().stream().anyMatch(messageIds::contains)) {
+                links.add(message);
+            }
+        }
+        return links;
+    }
+
+    private void index(Message message) {
+        if (message.getChannelId() != null && message.getMessageIds() != null) {
+            for (Long messageId : message.getMessageIds()) {
+                sources.put(sourceKey(message.getChannelId(), messageId, message.getId()), "");
+            }
+        }
+        if (message.getExpiresAt() != null) {
+            expiry.put(expiryKey(message.getExpiresAt(), message.getId()), "");
+        }
+    }
+
+    private void unindex(Message message) {
+        if (message.getChannelId() != null && message.getMessageIds() != null) {
+            for (Long messageId : message.getMessageIds()) {
+                sources.remove(sourceKey(message.getChannelId(), messageId, message.getId()));
+            }
+        }
+        if (message.getExpiresAt() != null) {
+            expiry.remove(expiryKey(message.getExpiresAt(), message.getId()));
+        }
+    }
+
+    private static String sourceKey(long channelId, long messageId, String token) {
+        return channelId + ":" + messageId + ":" + token;
+    }
+
+    // epoch millis dengan lebar tetap agar urutan string = urutan waktu
+    private static String expiryKey(Instant expiresAt, String token) {
+        return String.format("%015d:%s", expiresAt.toEpochMilli(), token);
+    }
+
+    private static boolean isFrom(Message message, long channelId) {
+        return message.getChannelId() != null && message.getChannelId() == channelId;
+    }
+}
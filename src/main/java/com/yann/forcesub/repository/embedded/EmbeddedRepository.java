@@ -0,0 +1,410 @@
+package com.yann.forcesub.repository.embedded;
+
+import org.h2.mvstore.MVMap;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Implementasi {@link ReactiveMongoRepository} di atas satu {@link MVMap}. Operasi id-based berjalan
+ * di memori/mmap tanpa I/O jaringan; sort dan query by example dievaluasi di memori dengan scan penuh.
+ * Nilai di map tidak boleh dimutasi tanpa {@code put} ulang, jadi setiap perubahan menulis ulang entity.
+ */
+public abstract class EmbeddedRepository<T, ID> implements ReactiveMongoRepository<T, ID> {
+
+    protected final MVMap<ID, T> map;
+    private final Function<T, ID> idOf;
+
+    protected EmbeddedRepository(MVMap<ID, T> map, Function<T, ID> idOf) {
+        this.map = map;
+        this.idOf = idOf;
+    }
+
+    protected ID requireId(T entity) {
+        ID id = idOf.apply(entity);
+        if (id == null) {
+            throw new IllegalArgumentException("Embedded store requires an id for " + entity.getClass().getSimpleName());
+        }
+        return id;
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return Mono.fromCallable(() -> {
+            map.put(requireId(entity), entity);
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Mono<S> insert(S entity) {
+        return Mono.fromCallable(() -> {
+            if (map.putIfAbsent(requireId(entity), entity) != null) {
+                throw new DuplicateKeyException("Duplicate id " + idOf.apply(entity));
+            }
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::insert);
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::insert);
+    }
+
+    @Override
+    public Mono<T> findById(ID id) {
+        return Mono.fromCallable(() -> map.get(id));
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<ID> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(ID id) {
+        return Mono.fromCallable(() -> map.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<ID> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(new ArrayList<>(map.values())));
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<ID> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<ID> ids) {
+        return Flux.from(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromCallable(() -> (long) map.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(ID id) {
+        return Mono.fromRunnable(() -> map.remove(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<ID> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        return deleteById(requireId(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends ID> ids) {
+        return Mono.fromRunnable(() -> ids.forEach(map::remove));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entities) {
+        return Flux.from(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(map::clear);
+    }
+
+    @Override
+    public Flux<T> findAll(Sort sort) {
+        return Flux.defer(() -> Flux.fromIterable(sorted(values(), sort)));
+    }
+
+    @Override
+    public <S extends T> Mono<S> findOne(Example<S> example) {
+        return Mono.fromCallable(() -> {
+            List<S> matches = matching(example);
+            if (matches.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1, matches.size());
+            }
+            return matches.isEmpty() ? null : matches.getFirst();
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example) {
+        return Flux.defer(() -> Flux.fromIterable(matching(example)));
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example, Sort sort) {
+        return Flux.defer(() -> Flux.fromIterable(sorted(matching(example), sort)));
+    }
+
+    @Override
+    public <S extends T> Mono<Long> count(Example<S> example) {
+        return Mono.fromCallable(() -> (long) matching(example).size());
+    }
+
+    @Override
+    public <S extends T> Mono<Boolean> exists(Example<S> example) {
+        return Mono.fromCallable(() -> !matching(example).isEmpty());
+    }
+
+    @Override
+    public <S extends T, R, P extends Publisher<R>> P findBy(Example<S> example,
+                                                            Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        return queryFunction.apply(new ExampleQuery<>(example, Sort.unsorted(), 0));
+    }
+
+    protected List<T> values() {
+        return new ArrayList<>(map.values());
+    }
+
+    /**
+     * Mencocokkan probe seperti {@code Example} Mongo, tetapi hanya untuk properti tingkat atas: nilai non-String
+     * dibandingkan dengan {@code equals}, String mengikuti {@link ExampleMatcher.StringMatcher} dan ignore case.
+     */
+    @SuppressWarnings("unchecked")
+    protected <S extends T> List<S> matching(Example<S> example) {
+        S probe = example.getProbe();
+        ExampleMatcher matcher = example.getMatcher();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+        BeanWrapper probeBean = new BeanWrapperImpl(probe);
+
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        for (PropertyDescriptor property : probeBean.getPropertyDescriptors()) {
+            String path = property.getName();
+            if (property.getReadMethod() == null || "class".equals(path) || accessor.isIgnoredPath(path)) continue;
+            Object value = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(probeBean.getPropertyValue(path)))
+                    .orElse(null);
+            if (value == null && matcher.getNullHandler() == ExampleMatcher.NullHandler.IGNORE) continue;
+            criteria.put(path, value);
+        }
+
+        List<S> matches = new ArrayList<>();
+        for (T entity : map.values()) {
+            if (!probe.getClass().isInstance(entity)) continue;
+            BeanWrapper entityBean = new BeanWrapperImpl(entity);
+            boolean all = true;
+            boolean any = false;
+            for (Map.Entry<String, Object> criterion : criteria.entrySet()) {
+                boolean matched = matches(accessor, criterion.getKey(), criterion.getValue(),
+                        entityBean.getPropertyValue(criterion.getKey()));
+                all &= matched;
+                any |= matched;
+            }
+            if (criteria.isEmpty() || (matcher.isAllMatching() ? all : any)) {
+                matches.add((S) entity);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean matches(ExampleMatcherAccessor accessor, String path, Object expected, Object actual) {
+        if (!(expected instanceof String text) || !(actual instanceof String candidate)) {
+            return Objects.equals(expected, actual);
+        }
+        if (accessor.isIgnoreCaseForPath(path)) {
+            text = text.toLowerCase(Locale.ROOT);
+            candidate = candidate.toLowerCase(Locale.ROOT);
+        }
+        return switch (accessor.getStringMatcherForPath(path)) {
+            case STARTING -> candidate.startsWith(text);
+            case ENDING -> candidate.endsWith(text);
+            case CONTAINING -> candidate.contains(text);
+            case REGEX -> Pattern.compile(text).matcher(candidate).matches();
+            default -> candidate.equals(text);
+        };
+    }
+
+    /**
+     * Urutan seperti Mongo: null di depan untuk ascending; properti bertingkat memakai notasi titik.
+     */
+    protected static <S> List<S> sorted(List<S> entities, Sort sort) {
+        if (sort.isUnsorted()) return entities;
+        Comparator<S> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<S> next = Comparator.comparing(
+                    entity -> sortKey(new BeanWrapperImpl(entity).getPropertyValue(order.getProperty()), order.isIgnoreCase()),
+                    Comparator.nullsFirst(Comparator.<Comparable<Object>>naturalOrder()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        List<S> result = new ArrayList<>(entities);
+        result.sort(comparator);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> sortKey(Object value, boolean ignoreCase) {
+        if (value == null) return null;
+        if (value instanceof String text && ignoreCase) {
+            return (Comparable<Object>) (Comparable<?>) text.toLowerCase(Locale.ROOT);
+        }
+        if (value instanceof Comparable<?> comparable) {
+            return (Comparable<Object>) comparable;
+        }
+        return (Comparable<Object>) (Comparable<?>) value.toString();
+    }
+
+    /**
+     * {@link FluentQuery.ReactiveFluentQuery} di atas {@link #matching(Example)}. Projection diabaikan karena
+     * entity sudah utuh di memori; {@code as} hanya menerima supertype entity.
+     */
+    private class ExampleQuery<S extends T, R> implements FluentQuery.ReactiveFluentQuery<R> {
+
+        private final Example<S> example;
+        private final Sort sort;
+        private final int limit;
+
+        private ExampleQuery(Example<S> example, Sort sort, int limit) {
+            this.example = example;
+            this.sort = sort;
+            this.limit = limit;
+        }
+
+        @Override
+        public FluentQuery.ReactiveFluentQuery<R> sortBy(Sort sort) {
+            return new ExampleQuery<>(example, this.sort.and(sort), limit);
+        }
+
+        @Override
+        public FluentQuery.ReactiveFluentQuery<R> limit(int limit) {
+            return new ExampleQuery<>(example, sort, limit);
+        }
+
+        @Override
+        public <P> FluentQuery.ReactiveFluentQuery<P> as(Class<P> resultType) {
+            if (!resultType.isAssignableFrom(example.getProbeType())) {
+                throw new UnsupportedOperationException("Embedded store cannot project to " + resultType.getSimpleName());
+            }
+            return new ExampleQuery<>(example, sort, limit);
+        }
+
+        @Override
+        public FluentQuery.ReactiveFluentQuery<R> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public Mono<R> one() {
+            return Mono.fromCallable(() -> {
+                List<R> results = results();
+                if (results.size() > 1) {
+                    throw new IncorrectResultSizeDataAccessException(1, results.size());
+                }
+                return results.isEmpty() ? null : results.getFirst();
+            });
+        }
+
+        @Override
+        public Mono<R> first() {
+            return Mono.fromCallable(() -> {
+                List<R> results = results();
+                return results.isEmpty() ? null : results.getFirst();
+            });
+        }
+
+        @Override
+        public Flux<R> all() {
+            return Flux.defer(() -> Flux.fromIterable(results()));
+        }
+
+        @Override
+        public Mono<Page<R>> page(Pageable pageable) {
+            return Mono.fromCallable(() -> {
+                List<R> results = results();
+                return new PageImpl<>(slice(results, pageable), pageable, results.size());
+            });
+        }
+
+        public Mono<Slice<R>> slice(Pageable pageable) {
+            return Mono.fromCallable(() -> {
+                List<R> results = results();
+                boolean hasNext = pageable.isPaged() && pageable.getOffset() + pageable.getPageSize() < results.size();
+                return new SliceImpl<>(slice(results, pageable), pageable, hasNext);
+            });
+        }
+
+        @Override
+        public Mono<Long> count() {
+            return Mono.fromCallable(() -> (long) results().size());
+        }
+
+        @Override
+        public Mono<Boolean> exists() {
+            return Mono.fromCallable(() -> !results().isEmpty());
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<R> results() {
+            List<R> results = (List<R>) sorted(matching(example), sort);
+            return limit > 0 && results.size() > limit ? results.subList(0, limit) : results;
+        }
+
+        private List<R> slice(List<R> results, Pageable pageable) {
+            if (pageable.isUnpaged()) return results;
+            int from = (int) Math.min(pageable.getOffset(), results.size());
+            int to = Math.min(from + pageable.getPageSize(), results.size());
+            return results.subList(from, to);
+        }
+    }
+}
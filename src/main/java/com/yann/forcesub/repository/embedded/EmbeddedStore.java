@@ -0,0 +1,69 @@
+package com.yann.forcesub.repository.embedded;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * File MVStore tunggal untuk profile {@code embedded}. Setiap koleksi Mongo menjadi satu {@link MVMap};
+ * entity disimpan dengan serialisasi Java. Perubahan di-commit otomatis oleh MVStore (background writer).
+ */
+@Slf4j
+@Component
+@Profile("embedded")
+public class EmbeddedStore {
+
+    public static final String MESSAGES = "messages";
+    public static final String MESSAGE_CONTENT_KEYS = "messages.contentKey";
+    public static final String MESSAGE_SOURCES = "messages.source";
+    public static final String MESSAGE_EXPIRY = "messages.expiresAt";
+    public static final String USERS = "users";
+    public static final String CHANNELS = "channels";
+    public static final String ADMINS = "admins";
+    public static final String SETTINGS = "settings";
+    public static final String DELIVERIES = "deliveries";
+
+    private final MVStore store;
+
+    public EmbeddedStore(@Value("${forcesub.embedded.path:data/forcesub.mv}") String path,
+                         @Value("${forcesub.embedded.cache.mb:64}") int cacheMb) {
+        try {
+            Path file = Path.of(path);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.store = new MVStore.Builder()
+                .fileName(path)
+                .cacheSize(cacheMb)
+                .compress()
+                .open();
+        log.info("Embedded store opened at {} ({} maps)", path, store.getMapNames().size());
+    }
+
+    public <K, V> MVMap<K, V> map(String name) {
+        return store.openMap(name);
+    }
+
+    public void commit() {
+        store.commit();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!store.isClosed()) {
+            store.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.yann.forcesub.repository.embedded;
+
+import com.yann.forcesub.entity.User;
+import com.yann.forcesub.repository.UserRepository;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+@Repository
+@Profile("embedded")
+@DependsOn("mongoSnapshotImporter")
+public class EmbeddedUserRepository extends EmbeddedRepository<User, Long> implements UserRepository {
+
+    public EmbeddedUserRepository(EmbeddedStore store) {
+        super(store.map(EmbeddedStore.USERS), User::getId);
+    }
+
+    @Override
+    public Mono<User> insert(User user) {
+        return super.insert(user);
+    }
+
+    @Override
+    public Mono<Long> removeById(Long id) {
+        if (id == null) {
+            return Mono.error(new IllegalArgumentException("User id must not be null"));
+        }
+        return Mono.fromCallable(() -> map.remove(id) != null ? 1L : 0L);
+    }
+
+    @Override
+    public Mono<Boolean> existsUserById(Long id) {
+        return existsById(id);
+    }
+
+    @Override
+    public Flux<User> findAllIds() {
+        return Flux.defer(() -> Flux.fromIterable(new ArrayList<>(map.keySet())).map(User::new));
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return count();
+    }
+
+    @Override
+    public Mono<Integer> upsertAll(Collection<Long> ids) {
+        return Mono.fromCallable(() -> {
+            int inserted = 0;
+            for (Long id : ids) {
+                if (map.putIfAbsent(id, new User(id)) == null) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.yann.forcesub.repository.embedded;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.yann.forcesub.entity.Admin;
+import com.yann.forcesub.entity.AppSetting;
+import com.yann.forcesub.entity.Channel;
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.User;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.MVMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Migrasi satu kali dari Mongo ke embedded store: jika {@code forcesub.embedded.import.uri} diisi, setiap koleksi
+ * yang map-nya masih kosong disalin utuh. Berjalan sebelum repository embedded dibuat (lihat {@code @DependsOn}),
+ * sehingga cache yang dimuat saat startup sudah melihat data hasil impor.
+ */
+@Slf4j
+@Component
+@Profile("embedded")
+public class MongoSnapshotImporter {
+
+    private final EmbeddedStore store;
+    private final String uri;
+
+    public MongoSnapshotImporter(EmbeddedStore store, @Value("${forcesub.embedded.import.uri:}") String uri) {
+        this.store = store;
+        this.uri = uri;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (uri == null || uri.isBlank()) return;
+
+        ConnectionString connection = new ConnectionString(uri);
+        if (connection.getDatabase() == null) {
+            throw new IllegalStateException("forcesub.embedded.import.uri must include a database name");
+        }
+
+        try (MongoClient client = MongoClients.create(connection)) {
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, connection.getDatabase());
+            copy(template, EmbeddedStore.SETTINGS, AppSetting.class, AppSetting::getKey);
+            copy(template, EmbeddedStore.CHANNELS, Channel.class, Channel::getId);
+            copy(template, EmbeddedStore.ADMINS, Admin.class, Admin::getId);
+            copy(template, EmbeddedStore.USERS, User.class, User::getId);
+            copyMessages(template);
+        }
+        store.commit();
+    }
+
+    private <T, ID> void copy(ReactiveMongoTemplate template, String name, Class<T> type, Function<T, ID> idOf) {
+        MVMap<ID, T> target = store.map(name);
+        if (!target.isEmpty()) {
+            log.info("Embedded {} already populated, skipping import", name);
+            return;
+        }
+        long startedAt = System.nanoTime();
+        Long count = template.findAll(type, name)
+                .filter(entity -> idOf.apply(entity) != null)
+                .doOnNext(entity -> target.put(idOf.apply(entity), entity))
+                .count()
+                .block();
+        log.info("Imported {} {} from Mongo in {} ms", count, name, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private void copyMessages(ReactiveMongoTemplate template) {
+        MVMap<String, Message> messages = store.map(EmbeddedStore.MESSAGES);
+        if (!messages.isEmpty()) {
+            log.info("Embedded {} already populated, skipping import", EmbeddedStore.MESSAGES);
+            return;
+        }
+        MVMap<String, String> contentKeys = store.map(EmbeddedStore.MESSAGE_CONTENT_KEYS);
+        long startedAt = System.nanoTime();
+        Long count = template.findAll(Message.class, EmbeddedStore.MESSAGES)
+                .doOnNext(message -> {
+                    messages.put(message.getId(), message);
+                    if (message.getContentKey() != null) {
+                        contentKeys.put(message.getContentKey(), message.getId());
+                    }
+                })
+                .count()
+                .block();
+        log.info("Imported {} messages from Mongo in {} ms", count, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
@@ -0,0 +1,331 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.util.Hashing;
+import com.yann.forcesub.util.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * User aktif harian/mingguan/bulanan dan pengunjung unik per link dengan HyperLogLog: memori tetap dan baca O(1)
+ * berapa pun jumlah user. Satu sketch per hari (UTC) untuk 30 hari terakhir; WAU/MAU adalah union sketch harian.
+ * Sketch harian di-checkpoint ke file, sketch per link hanya di memori untuk {@code forcesub.hll.link.max} link
+ * terakhir.
+ * <p>
+ * Jika {@code forcesub.hll.redis.enabled}, id yang sama juga di-{@code PFADD} ke Redis per batch dan angka dibaca
+ * dengan {@code PFCOUNT} sehingga semua replica melihat hitungan gabungan; jika Redis gagal, sketch lokal dipakai.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActiveUserService {
+
+    private static final int PRECISION = 14;
+    private static final int LINK_PRECISION = 10;
+    private static final int RETENTION_DAYS = 30;
+
+    private static final String REDIS_PREFIX = "forcesub:hll:";
+    private static final Duration REDIS_DAY_TTL = Duration.ofDays(RETENTION_DAYS + 5);
+    private static final Duration REDIS_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ObjectProvider<ReactiveStringRedisTemplate> redisTemplateProvider;
+
+    @Value("${forcesub.hll.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${forcesub.hll.redis.flush.ms:1000}")
+    private long redisFlushMs;
+
+    // diperpanjang setiap kali link dikunjungi, jadi hanya link yang sepi yang hilang dari Redis
+    @Value("${forcesub.hll.redis.link.ttl.days:30}")
+    private int redisLinkTtlDays;
+
+    @Value("${forcesub.hll.path:data/active-users.hll}")
+    private String checkpointPath;
+
+    @Value("${forcesub.hll.checkpoint.minutes:5}")
+    private int checkpointMinutes;
+
+    @Value("${forcesub.hll.link.max:2000}")
+    private int maxLinks;
+
+    public record ActiveUsers(long daily, long weekly, long monthly) {
+    }
+
+    private final ConcurrentNavigableMap<LocalDate, HyperLogLog> days = new ConcurrentSkipListMap<>();
+    private Map<String, HyperLogLog> links;
+
+    // key Redis -> member yang belum di-PFADD
+    private final Map<String, Set<String>> pendingRedis = new ConcurrentHashMap<>();
+
+    private ReactiveStringRedisTemplate redisTemplate;
+    private volatile boolean dirty;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        links = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HyperLogLog> eldest) {
+                return size() > maxLinks;
+            }
+        });
+
+        loadCheckpoint();
+
+        if (redisEnabled) {
+            redisTemplate = redisTemplateProvider.getIfAvailable();
+            if (redisTemplate == null) {
+                log.warn("forcesub.hll.redis.enabled is set but no Redis template is available, using local sketches");
+            }
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "active-users");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                this::checkpoint,
+                checkpointMinutes,
+                checkpointMinutes,
+                TimeUnit.MINUTES
+        );
+
+        if (redisTemplate != null) {
+            scheduler.scheduleWithFixedDelay(
+                    this::flushRedis,
+                    redisFlushMs,
+                    redisFlushMs,
+                    TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+        flushRedis();
+        checkpoint();
+    }
+
+    /**
+     * Dipanggil untuk setiap update dari user; hanya menyentuh register sketch hari ini.
+     */
+    public void recordActive(long userId) {
+        if (today().add(Hashing.mix64(userId))) {
+            dirty = true;
+        }
+        queueRedis(dayKey(LocalDate.now(ZoneOffset.UTC)), userId);
+    }
+
+    public void recordVisit(String token, long userId) {
+        if (token == null) return;
+        links.computeIfAbsent(token, t -> new HyperLogLog(LINK_PRECISION)).add(Hashing.mix64(userId));
+        queueRedis(linkKey(token), userId);
+    }
+
+    public Mono<ActiveUsers> activeUsers() {
+        if (redisTemplate == null) {
+            return Mono.just(localActiveUsers());
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return Mono.zip(
+                        redisCount(dayKeys(today, 1)),
+                        redisCount(dayKeys(today, 7)),
+                        redisCount(dayKeys(today, RETENTION_DAYS)))
+                .map(counts -> new ActiveUsers(counts.getT1(), counts.getT2(), counts.getT3()))
+                .timeout(REDIS_TIMEOUT)
+                .onErrorResume(error -> {
+                    log.warn("Redis PFCOUNT failed, using local sketches: {}", error.getMessage());
+                    return Mono.just(localActiveUsers());
+                });
+    }
+
+    /**
+     * Pengunjung unik link; kosong jika link tidak punya sketch lokal dan Redis tidak aktif.
+     */
+    public Mono<Long> linkVisitors(String token) {
+        HyperLogLog local = links.get(token);
+        Mono<Long> fallback = Mono.justOrEmpty(local).map(HyperLogLog::count);
+        if (redisTemplate == null) {
+            return fallback;
+        }
+        return redisCount(List.of(linkKey(token)))
+                .timeout(REDIS_TIMEOUT)
+                .onErrorResume(error -> fallback);
+    }
+
+    private ActiveUsers localActiveUsers() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return new ActiveUsers(union(today, 1), union(today, 7), union(today, RETENTION_DAYS));
+    }
+
+    private long union(LocalDate today, int span) {
+        HyperLogLog union = new HyperLogLog(PRECISION);
+        days.subMap(today.minusDays(span - 1L), true, today, true)
+                .values()
+                .forEach(union::merge);
+        return union.count();
+    }
+
+    private HyperLogLog today() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        HyperLogLog sketch = days.get(today);
+        if (sketch != null) return sketch;
+
+        sketch = days.computeIfAbsent(today, d -> new HyperLogLog(PRECISION));
+        days.headMap(today.minusDays(RETENTION_DAYS - 1L)).clear();
+        return sketch;
+    }
+
+    private void queueRedis(String key, long userId) {
+        if (redisTemplate == null) return;
+        requeueRedis(key, Set.of(Long.toString(userId)));
+    }
+
+    private void requeueRedis(String key, Set<String> members) {
+        // add di dalam compute: tidak bisa menyusup ke set yang sudah diambil flushRedis
+        pendingRedis.compute(key, (k, pending) -> {
+            Set<String> set = pending != null ? pending : new HashSet<>();
+            set.addAll(members);
+            return set;
+        });
+    }
+
+    private Mono<Long> redisCount(List<String> keys) {
+        return redisTemplate.opsForHyperLogLog().size(keys.toArray(String[]::new));
+    }
+
+    private void flushRedis() {
+        if (redisTemplate == null || pendingRedis.isEmpty()) return;
+        List<Mono<?>> writes = new ArrayList<>();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<Throwable> lastError = new AtomicReference<>();
+        for (String key : new ArrayList<>(pendingRedis.keySet())) {
+            // remove atomik terhadap compute di queueRedis, jadi set ini tidak berubah lagi setelah diambil
+            Set<String> members = pendingRedis.remove(key);
+            if (members == null || members.isEmpty()) continue;
+            Duration ttl = key.startsWith(REDIS_PREFIX + "day:") ? REDIS_DAY_TTL : Duration.ofDays(redisLinkTtlDays);
+            // PFCOUNT Redis dipakai selama Redis hidup, jadi member yang gagal diulang di flush berikutnya
+            // (PFADD idempoten, member yang sebenarnya sudah masuk tidak terhitung dua kali)
+            writes.add(redisTemplate.opsForHyperLogLog().add(key, members.toArray(String[]::new))
+                    .then(redisTemplate.expire(key, ttl))
+                    .timeout(REDIS_TIMEOUT)
+                    .onErrorResume(error -> {
+                        requeueRedis(key, members);
+                        failed.incrementAndGet();
+                        lastError.set(error);
+                        return Mono.empty();
+                    })
+                    .doOnCancel(() -> requeueRedis(key, members)));
+        }
+        try {
+            Flux.merge(writes).then().block(REDIS_TIMEOUT.multipliedBy(5));
+        } catch (Exception e) {
+            log.warn("Redis flush of {} keys did not finish: {}", writes.size(), e.getMessage());
+        }
+        if (failed.get() > 0) {
+            log.warn("Failed to PFADD {} of {} keys to Redis, retrying next flush: {}",
+                    failed.get(), writes.size(), lastError.get().getMessage());
+        }
+    }
+
+    private static List<String> dayKeys(LocalDate today, int span) {
+        List<String> keys = new ArrayList<>(span);
+        for (int i = 0; i < span; i++) {
+            keys.add(dayKey(today.minusDays(i)));
+        }
+        return keys;
+    }
+
+    private static String dayKey(LocalDate day) {
+        return REDIS_PREFIX + "day:" + day;
+    }
+
+    private static String linkKey(String token) {
+        return REDIS_PREFIX + "link:" + token;
+    }
+
+    private void loadCheckpoint() {
+        Path path = Path.of(checkpointPath);
+        if (!Files.exists(path)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int count = in.readInt();
+            LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(RETENTION_DAYS - 1L);
+            for (int i = 0; i < count; i++) {
+                LocalDate day = LocalDate.ofEpochDay(in.readLong());
+                HyperLogLog sketch = HyperLogLog.readFrom(in);
+                if (!day.isBefore(oldest)) {
+                    days.put(day, sketch);
+                }
+            }
+            log.info("Restored {} daily active-user sketches from {}", days.size(), path);
+        } catch (IOException e) {
+            log.warn("Active-user checkpoint {} unreadable, starting empty: {}", path, e.getMessage());
+            days.clear();
+        }
+    }
+
+    private void checkpoint() {
+        if (!dirty) return;
+        dirty = false;
+        Path path = Path.of(checkpointPath);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Map<LocalDate, HyperLogLog> snapshot = new LinkedHashMap<>(days);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(snapshot.size());
+                for (Map.Entry<LocalDate, HyperLogLog> entry : snapshot.entrySet()) {
+                    out.writeLong(entry.getKey().toEpochDay());
+                    entry.getValue().writeTo(out);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.error("Failed to checkpoint active-user sketches to {}", path, e);
+        }
+    }
+}
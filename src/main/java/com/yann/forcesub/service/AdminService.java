@@ -3,17 +3,19 @@ package com.yann.forcesub.service;
 import com.yann.forcesub.entity.Admin;
 import com.yann.forcesub.event.AdminUpdateEvent;
 import com.yann.forcesub.repository.AdminRepository;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AdminService {
@@ -22,32 +24,63 @@ public class AdminService {
     private List<Long> adminIdList;
 
     private final AdminRepository adminRepository;
-    private final Set<Long> adminIds = new HashSet<>();
+    private final Set<Long> adminIds = ConcurrentHashMap.newKeySet();
 
     public void saveAdmin(Long id) {
         adminIds.add(id);
-        adminRepository.save(new Admin(id));
+        adminRepository.save(new Admin(id))
+                .subscribe(null, e -> log.error("Error saving admin {}: {}", id, e.getMessage()));
     }
 
     public Mono<Boolean> isAdmin(Long id) {
-        return Mono.just(adminIds.contains(id));
+        // admin dari konfigurasi dikenali sebelum warm-up memuat cache
+        return Mono.just(adminIds.contains(id) || adminIdList.contains(id));
     }
 
+    /**
+     * Perubahan dari replica lain (lewat change stream); hanya cache yang diperbarui.
+     */
+    public void applyRemote(Long id, boolean present) {
+        if (id == null) return;
+        if (present) {
+            adminIds.add(id);
+        } else if (!adminIdList.contains(id)) {
+            adminIds.remove(id);
+        }
+    }
+
+    public Mono<Void> reload() {
+        return adminRepository.findAll()
+                .map(Admin::getId)
+                .collectList()
+                .doOnNext(ids -> {
+                    adminIds.retainAll(ids);
+                    adminIds.addAll(ids);
+                    adminIds.addAll(adminIdList);
+                    log.info("Loaded {} admins", adminIds.size());
+                })
+                .then();
+    }
 
     @EventListener(AdminUpdateEvent.class)
     public void updateAdmin(AdminUpdateEvent event) {
         if (event.isDelete()) {
             adminIds.remove(event.getId());
+            adminRepository.deleteById(event.getId())
+                    .subscribe(null, e -> log.error("Error deleting admin {}: {}", event.getId(), e.getMessage()));
         } else {
-            adminIds.add(event.getId());
+            saveAdmin(event.getId());
         }
     }
 
-    @PostConstruct
-    public void init() {
-        for (Long id : adminIdList) {
-            saveAdmin(id);
-        }
+    /**
+     * Simpan admin dari {@code admin.id} lalu muat semua admin; dijalankan oleh {@link WarmupService}.
+     */
+    public Mono<Void> load() {
+        adminIds.addAll(adminIdList);
+        return Flux.fromIterable(adminIdList)
+                .concatMap(id -> adminRepository.save(new Admin(id)))
+                .then(reload());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package com.yann.forcesub.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.OperationType;
+import com.yann.forcesub.entity.Admin;
+import com.yann.forcesub.entity.AppSetting;
+import com.yann.forcesub.entity.Channel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Menyinkronkan cache settings, channel aktif, dan admin antar replica lewat change stream Mongo
+ * (butuh replica set). Setiap stream menyimpan resume token terakhir sehingga reconnect melanjutkan
+ * dari event yang sama; jika history oplog sudah hilang, cache dimuat ulang penuh.
+ * <p>
+ * Perubahan diterapkan langsung ke cache tanpa Spring event, karena listener event menulis ulang ke Mongo
+ * dan akan memantul antar replica.
+ */
+@Slf4j
+@Service
+@Profile("!embedded")
+@RequiredArgsConstructor
+public class ChangeStreamWatcher {
+
+    // ChangeStreamHistoryLost
+    private static final int HISTORY_LOST = 286;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ConfigService configService;
+    private final ChannelService channelService;
+    private final AdminService adminService;
+
+    @Value("${forcesub.changestream.enabled:false}")
+    private boolean enabled;
+
+    @Value("${forcesub.changestream.max.backoff.seconds:60}")
+    private int maxBackoffSeconds;
+
+    private final Map<String, BsonValue> resumeTokens = new ConcurrentHashMap<>();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Change stream sync disabled");
+            return;
+        }
+
+        watch("settings", AppSetting.class, this::onSetting, configService::reload);
+        watch("channels", Channel.class, this::onChannel, () -> channelService.reloadActiveChannels().then());
+        watch("admins", Admin.class, this::onAdmin, adminService::reload);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.dispose();
+    }
+
+    private <T> void watch(String collection, Class<T> type, Consumer<ChangeStreamEvent<T>> handler,
+                           Supplier<Mono<Void>> reload) {
+        Disposable subscription = Flux.defer(() -> mongoTemplate.changeStream(collection, options(collection), type))
+                .doOnSubscribe(s -> log.info("Watching {} changes (resume token: {})",
+                        collection, resumeTokens.containsKey(collection)))
+                .doOnNext(event -> {
+                    handler.accept(event);
+                    if (event.getResumeToken() != null) {
+                        resumeTokens.put(collection, event.getResumeToken());
+                    }
+                })
+                .onErrorResume(e -> isHistoryLost(e), e -> {
+                    log.warn("Change stream history lost for {}, reloading cache", collection);
+                    resumeTokens.remove(collection);
+                    return reload.get().then(Mono.error(e));
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(maxBackoffSeconds))
+                        .doBeforeRetry(signal -> log.warn("Change stream on {} failed, reconnecting: {}",
+                                collection, signal.failure().getMessage())))
+                .subscribe(null, e -> log.error("Change stream on {} stopped", collection, e));
+        subscriptions.add(subscription);
+    }
+
+    private ChangeStreamOptions options(String collection) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder builder = ChangeStreamOptions.builder()
+                .returnFullDocumentOnUpdate();
+        BsonValue token = resumeTokens.get(collection);
+        if (token != null) {
+            builder.resumeAfter(token);
+        }
+        return builder.build();
+    }
+
+    private void onSetting(ChangeStreamEvent<AppSetting> event) {
+        if (isDelete(event)) {
+            BsonValue key = documentKey(event);
+            if (key != null && key.isString()) {
+                configService.applyRemote(key.asString().getValue(), null);
+            }
+        } else if (event.getBody() != null) {
+            configService.applyRemote(event.getBody().getKey(), event.getBody().getValue());
+        }
+    }
+
+    private void onChannel(ChangeStreamEvent<Channel> event) {
+        if (isDelete(event)) {
+            BsonValue id = documentKey(event);
+            if (id != null && id.isNumber()) {
+                channelService.removeRemote(id.asNumber().longValue());
+            }
+        } else if (event.getBody() != null) {
+            channelService.applyRemote(event.getBody());
+        }
+    }
+
+    private void onAdmin(ChangeStreamEvent<Admin> event) {
+        if (isDelete(event)) {
+            BsonValue id = documentKey(event);
+            if (id != null && id.isNumber()) {
+                adminService.applyRemote(id.asNumber().longValue(), false);
+            }
+        } else if (event.getBody() != null) {
+            adminService.applyRemote(event.getBody().getId(), true);
+        }
+    }
+
+    private static boolean isDelete(ChangeStreamEvent<?> event) {
+        return event.getOperationType() == OperationType.DELETE;
+    }
+
+    private static BsonValue documentKey(ChangeStreamEvent<?> event) {
+        if (event.getRaw() == null) return null;
+        BsonDocument key = event.getRaw().getDocumentKey();
+        return key != null ? key.get("_id") : null;
+    }
+
+    private static boolean isHistoryLost(Throwable error) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(error);
+        return cause instanceof MongoException mongoException && mongoException.getCode() == HISTORY_LOST;
+    }
+}
@@ -0,0 +1,234 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.entity.Channel;
+import com.yann.forcesub.service.telegram.MessageTextSender;
+import com.yann.forcesub.service.telegram.TelegramService;
+import it.tdlight.jni.TdApi;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mengisi cache membership {@link UserSubscriptionService} secara bulk dari daftar anggota channel,
+ * sehingga channel baru tidak memicu badai {@code GetChatMember} per user. Entry bertahan sampai reconcile
+ * berikutnya; user yang keluar dihapus saat daftar lengkap dibandingkan dengan daftar sebelumnya. Jika daftar
+ * hanya terbaca sebagian (terpotong atau gagal), entry diturunkan ke TTL subscription biasa karena user yang
+ * keluar tidak bisa dideteksi.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChannelRosterService {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final TelegramService telegramService;
+    private final ChannelService channelService;
+    private final UserSubscriptionService userSubscriptionService;
+    private final MessageTextSender messageTextSender;
+
+    @Value("${forcesub.roster.reconcile.minutes:60}")
+    private int reconcileMinutes;
+
+    @Value("${forcesub.roster.page.delay.ms:1000}")
+    private long pageDelayMs;
+
+    @Value("${forcesub.roster.max.members:10000}")
+    private int maxMembers;
+
+    private final Set<Long> runningImports = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Long>> channelRosters = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "roster-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleAtFixedRate(
+                this::reconcileAll,
+                reconcileMinutes,
+                reconcileMinutes,
+                TimeUnit.MINUTES
+        );
+
+        log.info("Roster reconcile every {} minutes, {} ms between pages", reconcileMinutes, pageDelayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Import seluruh anggota channel ke cache. Progress dikirim ke {@code reportChatId} jika tidak null.
+     */
+    public void importRoster(long channelId, Long reportChatId) {
+        if (!runningImports.add(channelId)) {
+            log.info("Roster import for channel {} already running", channelId);
+            return;
+        }
+
+        RosterProgress progress = new RosterProgress(channelId);
+        Mono<TdApi.Message> reportMono = reportChatId == null
+                ? Mono.empty()
+                : Mono.fromFuture(messageTextSender.sendAndWait(progress.render(false), reportChatId, null))
+                        .onErrorResume(e -> {
+                            log.warn("Cannot send roster progress to {}: {}", reportChatId, e.getMessage());
+                            return Mono.empty();
+                        })
+                        .cache();
+
+        reportMono.then(importPage(channelId, 0, progress, reportMono))
+                .doOnSuccess(v -> {
+                    if (progress.complete) {
+                        replaceRoster(channelId, progress.members);
+                    } else {
+                        expireRoster(channelId, progress.members);
+                    }
+                    log.info("Roster import for channel {} finished: {} members cached in {} ms",
+                            channelId, progress.members.size(), progress.elapsedMillis());
+                    reportMono.subscribe(report -> messageTextSender.edit(progress.render(true), report.chatId, report.id, null));
+                })
+                .doOnError(e -> {
+                    expireRoster(channelId, progress.members);
+                    log.error("Roster import for channel {} failed: {}", channelId, e.getMessage());
+                    reportMono.subscribe(report -> messageTextSender.edit(
+                            progress.render(true) + "\n⚠️ Terhenti: " + e.getMessage(), report.chatId, report.id, null));
+                })
+                .doFinally(signal -> runningImports.remove(channelId))
+                .subscribe(v -> { }, e -> { });
+    }
+
+    private Mono<Void> importPage(long channelId, int offset, RosterProgress progress, Mono<TdApi.Message> reportMono) {
+        return Mono.fromFuture(() -> telegramService.getSupergroupMembers(channelId, offset, PAGE_SIZE))
+                .flatMap(page -> {
+                    cacheMembers(channelId, page.members, progress);
+                    progress.totalCount = page.totalCount;
+
+                    int next = offset + page.members.length;
+                    boolean lastPage = page.members.length < PAGE_SIZE || next >= page.totalCount;
+                    if (lastPage) {
+                        progress.complete = true;
+                        return Mono.empty();
+                    }
+                    if (next >= maxMembers) {
+                        log.warn("Roster of channel {} truncated at {} members", channelId, maxMembers);
+                        return Mono.empty();
+                    }
+
+                    reportMono.subscribe(report -> messageTextSender.edit(progress.render(false), report.chatId, report.id, null));
+                    return Mono.delay(Duration.ofMillis(pageDelayMs))
+                            .then(importPage(channelId, next, progress, reportMono));
+                });
+    }
+
+    private void cacheMembers(long channelId, TdApi.ChatMember[] members, RosterProgress progress) {
+        Duration ttl = Duration.ofMinutes(reconcileMinutes + 5L);
+        for (TdApi.ChatMember member : members) {
+            progress.processed++;
+            if (member.memberId instanceof TdApi.MessageSenderUser user && telegramService.isActiveMember(member.status)) {
+                userSubscriptionService.addUserChannelId(user.userId, channelId, ttl);
+                progress.members.add(user.userId);
+            }
+        }
+    }
+
+    private void replaceRoster(long channelId, Set<Long> members) {
+        Set<Long> previous = channelRosters.put(channelId, members);
+        if (previous == null) return;
+
+        int removed = 0;
+        for (Long userId : previous) {
+            if (!members.contains(userId)) {
+                userSubscriptionService.removeUserChannelId(userId, channelId);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Channel {}: {} users left since last reconcile", channelId, removed);
+        }
+    }
+
+    private void expireRoster(long channelId, Set<Long> members) {
+        channelRosters.remove(channelId);
+        for (Long userId : members) {
+            userSubscriptionService.addUserChannelId(userId, channelId);
+        }
+    }
+
+    private void reconcileAll() {
+        Flux.fromIterable(channelService.activeChannels())
+                .map(Channel::getId)
+                .concatMap(channelId -> {
+                    importRoster(channelId, null);
+                    return Mono.delay(Duration.ofMillis(pageDelayMs));
+                })
+                .onErrorResume(e -> {
+                    log.error("Error during roster reconcile", e);
+                    return Flux.empty();
+                })
+                .subscribe();
+    }
+
+    /**
+     * Dipanggil saat channel dihapus dari force sub.
+     */
+    public void forgetRoster(long channelId) {
+        channelRosters.remove(channelId);
+    }
+
+    private static class RosterProgress {
+        private final long channelId;
+        private final long startedAt = System.nanoTime();
+        private final Set<Long> members = new HashSet<>();
+        private int processed;
+        private int totalCount;
+        private boolean complete;
+
+        private RosterProgress(long channelId) {
+            this.channelId = channelId;
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - startedAt) / 1_000_000;
+        }
+
+        private String render(boolean finished) {
+            return String.format("""
+                    👥 <b>Sinkronisasi Anggota Channel</b>
+
+                    🆔 <b>Channel:</b> <code>%d</code>
+                    📥 <b>Diproses:</b> %d / %d
+                    ✅ <b>Ter-cache:</b> %d
+                    ⏱ <b>Status:</b> %s
+                    """,
+                    channelId,
+                    processed,
+                    totalCount,
+                    members.size(),
+                    finished ? "Selesai dalam " + elapsedMillis() / 1000 + " detik" : "Berjalan..."
+            );
+        }
+    }
+}
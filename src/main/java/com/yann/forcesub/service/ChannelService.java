@@ -13,6 +13,10 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,21 +28,25 @@ public class ChannelService {
     @Value("${default.database.id}")
     private long defaultDatabaseId;
 
+    private final AtomicReference<List<Channel>> activeChannels = new AtomicReference<>(List.of());
+
     public Mono<Channel> saveChannel(Long id, String channelLinks, boolean isActive) {
         Channel channel = new Channel();
         channel.setId(id);
         channel.setChannelLinks(channelLinks);
         channel.setActive(isActive);
-        return channelRepository.save(channel);
+        return saveChannel(channel);
     }
     public Mono<Channel> saveChannel(Channel channel) {
-        return channelRepository.save(channel);
+        return channelRepository.save(channel)
+                .doOnSuccess(this::applyToSnapshot);
     }
     public Mono<Channel> findById(Long id) {
         return channelRepository.findById(id);
     }
     public Mono<Void> deleteById(Long id) {
-        return channelRepository.deleteById(id);
+        return channelRepository.deleteById(id)
+                .doOnSuccess(v -> removeFromSnapshot(id));
     }
     public Mono<Long> count() {
         return channelRepository.count();
@@ -59,9 +67,61 @@ public class ChannelService {
                 .flatMap(channel -> {
                     channel.setChannelLinks(channelLinks);
                     channel.setActive(isActive);
-                    return channelRepository.save(channel);
+                    return saveChannel(channel);
+                });
+    }
+
+    /**
+     * Snapshot channel aktif tanpa I/O; diganti secara atomik setiap kali channel berubah.
+     */
+    public List<Channel> activeChannels() {
+        return activeChannels.get();
+    }
+
+    public Mono<List<Channel>> reloadActiveChannels() {
+        return channelRepository.findAllByIsActiveIs(true)
+                .collectList()
+                .doOnNext(channels -> {
+                    activeChannels.set(List.copyOf(channels));
+                    log.info("Loaded {} active channels into snapshot", channels.size());
                 });
     }
+
+    /**
+     * Perubahan dari replica lain (lewat change stream); hanya snapshot yang diperbarui, tanpa menulis ulang ke Mongo.
+     */
+    public void applyRemote(Channel channel) {
+        applyToSnapshot(channel);
+    }
+
+    public void removeRemote(Long id) {
+        removeFromSnapshot(id);
+    }
+
+    private void applyToSnapshot(Channel channel) {
+        if (channel == null || channel.getId() == null) return;
+        activeChannels.updateAndGet(current -> {
+            List<Channel> next = new ArrayList<>(current.size() + 1);
+            boolean replaced = false;
+            for (Channel existing : current) {
+                if (existing.getId().equals(channel.getId())) {
+                    replaced = true;
+                    if (channel.isActive()) next.add(channel);
+                } else {
+                    next.add(existing);
+                }
+            }
+            if (!replaced && channel.isActive()) next.add(channel);
+            return List.copyOf(next);
+        });
+    }
+
+    private void removeFromSnapshot(Long id) {
+        if (id == null) return;
+        activeChannels.updateAndGet(current -> current.stream()
+                .filter(channel -> !channel.getId().equals(id))
+                .toList());
+    }
     @EventListener(ChannelUpdateEvent.class)
     public void event(ChannelUpdateEvent event) {
         if (event.getChannelId() == null) return;
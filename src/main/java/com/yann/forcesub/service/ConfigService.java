@@ -4,7 +4,6 @@ import com.yann.forcesub.entity.AppSetting;
 import com.yann.forcesub.event.ContentRestrictedEvent;
 import com.yann.forcesub.event.VariableUpdateEvent;
 import com.yann.forcesub.repository.AppSettingRepository;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -29,10 +28,11 @@ public class ConfigService {
 
 
 
-    @PostConstruct
-    public void init() {
-        log.info("Initializing ConfigService...");
-        appSettingRepository.findAll()
+    /**
+     * Muat semua setting ke cache lalu buat default yang belum ada; dijalankan oleh {@link WarmupService}.
+     */
+    public Mono<Void> load() {
+        return appSettingRepository.findAll()
                 .doOnNext(setting -> {
                     localCache.put(setting.getKey(), setting.getValue());
                     log.debug("Loaded config: {} = {}", setting.getKey(), setting.getValue());
@@ -40,8 +40,7 @@ public class ConfigService {
                 .doOnComplete(() -> log.info("Loaded {} configs from database", localCache.size()))
                 .then(initializeDefaultConfigs())
                 .doOnSuccess(v -> log.info("ConfigService initialized successfully"))
-                .doOnError(e -> log.error("Error initializing ConfigService", e))
-                .subscribe();
+                .doOnError(e -> log.error("Error initializing ConfigService", e));
     }
 
     private Mono<Void> initializeDefaultConfigs() {
@@ -71,6 +70,11 @@ public class ConfigService {
         return Boolean.parseBoolean(value);
     }
 
+    public boolean isForceSubEnabled() {
+        String value = localCache.getOrDefault(KEY_FORCE_SUB_ENABLED, "true");
+        return Boolean.parseBoolean(value);
+    }
+
     public Mono<AppSetting> setContentRestricted(boolean status) {
         return setConfig(KEY_CONTENT_RESTRICTED, String.valueOf(status));
     }
@@ -94,6 +98,25 @@ public class ConfigService {
         return appSettingRepository.findAll();
     }
 
+    /**
+     * Perubahan dari replica lain (lewat change stream); value null berarti setting dihapus.
+     */
+    public void applyRemote(String key, String value) {
+        if (key == null) return;
+        if (value == null) {
+            localCache.remove(key);
+        } else {
+            localCache.put(key, value);
+        }
+        log.debug("Config synced from change stream: {} = {}", key, value);
+    }
+
+    public Mono<Void> reload() {
+        return appSettingRepository.findAll()
+                .doOnNext(setting -> localCache.put(setting.getKey(), setting.getValue()))
+                .then();
+    }
+
 
     @EventListener(ContentRestrictedEvent.class)
     public void event(ContentRestrictedEvent event) {
@@ -0,0 +1,137 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.entity.DeliveryEvent;
+import com.yann.forcesub.repository.DeliveryEventRepository;
+import com.yann.forcesub.util.MpscRing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log pengiriman link. {@link #record} hanya menaruh event di ring buffer tanpa lock dan tanpa I/O; satu thread
+ * menulis isinya ke koleksi time-series per batch, paling lambat setiap {@code forcesub.delivery.flush.ms}.
+ * Jika ring penuh (Mongo lambat atau mati) event dibuang dan dihitung, pengiriman ke user tidak pernah ditahan.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryLogService {
+
+    private final DeliveryEventRepository deliveryEventRepository;
+    private final StatisticsService statisticsService;
+
+    @Value("${forcesub.delivery.flush.ms:2000}")
+    private long flushMs;
+
+    @Value("${forcesub.delivery.batch.size:500}")
+    private int batchSize;
+
+    @Value("${forcesub.delivery.buffer.size:16384}")
+    private int bufferSize;
+
+    @Value("${forcesub.delivery.retention.days:30}")
+    private int retentionDays;
+
+    private MpscRing<DeliveryEvent> ring;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        ring = new MpscRing<>(bufferSize);
+
+        deliveryEventRepository.ensureCollection(Duration.ofDays(retentionDays))
+                .subscribe(null, error -> log.error("Failed to create deliveries time-series collection", error));
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "delivery-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                this::flush,
+                flushMs,
+                flushMs,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Catat satu percobaan pengiriman; latency dihitung dari {@code startedAtNanos} ({@link System#nanoTime()}).
+     */
+    public void record(long userId, String token, Long channelId, int messageCount,
+                       long startedAtNanos, DeliveryEvent.Outcome outcome) {
+        statisticsService.recordDelivery(outcome);
+        DeliveryEvent event = DeliveryEvent.builder()
+                .timestamp(Instant.now())
+                .token(token)
+                .channelId(channelId)
+                .userId(userId)
+                .messageCount(messageCount)
+                .latencyMs((System.nanoTime() - startedAtNanos) / 1_000_000)
+                .outcome(outcome)
+                .build();
+        if (!ring.offer(event)) {
+            long total = dropped.incrementAndGet();
+            if (total % 1000 == 1) {
+                log.warn("Delivery log buffer full, {} events dropped so far", total);
+            }
+        }
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public int buffered() {
+        return ring.size();
+    }
+
+    // hanya dari thread scheduler (dan shutdown setelah scheduler berhenti), jadi ring tetap single-consumer
+    private synchronized void flush() {
+        try {
+            while (true) {
+                List<DeliveryEvent> batch = new ArrayList<>(Math.min(batchSize, ring.size()));
+                ring.drain(batch::add, batchSize);
+                if (batch.isEmpty()) return;
+
+                deliveryEventRepository.insert(batch)
+                        .count()
+                        .doOnNext(count -> log.debug("Flushed {} delivery events", count))
+                        .block(Duration.ofSeconds(30));
+
+                if (batch.size() < batchSize) return;
+            }
+        } catch (Exception e) {
+            // batch yang gagal dibuang: log analitik tidak boleh menumpuk tanpa batas saat Mongo bermasalah
+            log.error("Failed to flush delivery events", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.event.LinkViewEvent;
+import com.yann.forcesub.repository.MessageRepository;
+import com.yann.forcesub.util.TopK;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Leaderboard link terpopuler yang diperbarui dari setiap {@link LinkViewEvent}, sehingga membaca
+ * leaderboard tidak perlu sort koleksi messages. Isi leaderboard di-checkpoint ke file secara berkala;
+ * hanya jika checkpoint belum ada leaderboard diisi sekali dari Mongo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private final MessageRepository messageRepository;
+    private final MessageService messageService;
+
+    @Value("${forcesub.leaderboard.size:10}")
+    private int size;
+
+    @Value("${forcesub.leaderboard.path:data/leaderboard.log}")
+    private String checkpointPath;
+
+    @Value("${forcesub.leaderboard.checkpoint.minutes:5}")
+    private int checkpointMinutes;
+
+    private TopK topK;
+    private volatile boolean dirty;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        // cadangan agar link yang mati tidak membuat leaderboard kurang dari size
+        topK = new TopK(size * 2);
+
+        if (!loadCheckpoint()) {
+            messageRepository.topByViewCount(size * 2)
+                    .subscribe(
+                            message -> topK.offer(message.getId(), message.getViewCount()),
+                            error -> log.error("Failed to seed leaderboard", error),
+                            () -> {
+                                dirty = true;
+                                log.info("Leaderboard seeded from Mongo");
+                            }
+                    );
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leaderboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                this::checkpoint,
+                checkpointMinutes,
+                checkpointMinutes,
+                TimeUnit.MINUTES
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+        checkpoint();
+    }
+
+    @EventListener
+    public void onLinkView(LinkViewEvent event) {
+        if (topK.offer(event.getToken(), event.getViewCount())) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Maksimal {@code size} link teratas yang masih hidup, urut dari view terbanyak.
+     */
+    public List<TopK.Entry> top() {
+        return topK.snapshot().stream()
+                .filter(entry -> !messageService.isDead(entry.key()))
+                .limit(size)
+                .toList();
+    }
+
+    private boolean loadCheckpoint() {
+        Path path = Path.of(checkpointPath);
+        if (!Files.exists(path)) return false;
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ");
+                if (parts.length == 2) {
+                    topK.offer(parts[0], Long.parseLong(parts[1]));
+                }
+            }
+            log.info("Leaderboard restored from checkpoint {}", path);
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Leaderboard checkpoint {} unreadable, seeding from Mongo: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private void checkpoint() {
+        if (!dirty) return;
+        dirty = false;
+        Path path = Path.of(checkpointPath);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        String content = topK.snapshot().stream()
+                .map(entry -> entry.key() + " " + entry.score() + "\n")
+                .collect(Collectors.joining());
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.error("Failed to checkpoint leaderboard to {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Impor tabel link bot lama ke koleksi messages saat startup jika {@code forcesub.legacy.import.path} diisi.
+ * File dibaca per baris (tidak dimuat sekaligus) dengan format CSV:
+ * <pre>
+ * kode,channelId,firstId,lastId
+ * kode,channelId,id1 id2 id3
+ * </pre>
+ * Kode lama dipakai sebagai _id sehingga link yang sudah tersebar tetap berlaku. Impor idempoten:
+ * dokumen yang sudah ada dilewati, jadi aman dijalankan ulang.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LegacyLinkImporter implements ApplicationRunner {
+
+    private final MessageRepository messageRepository;
+    private final TokenFilter tokenFilter;
+    private final StatisticsService statisticsService;
+
+    @Value("${forcesub.legacy.import.path:}")
+    private String importPath;
+
+    @Value("${forcesub.legacy.import.batch.size:1000}")
+    private int batchSize;
+
+    @Value("${forcesub.batch.max.range:2000}")
+    private int maxRange;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (importPath == null || importPath.isBlank()) {
+            return;
+        }
+
+        Path path = Path.of(importPath);
+        if (!Files.isReadable(path)) {
+            log.warn("Legacy import file {} is not readable, skipping", path);
+            return;
+        }
+
+        AtomicLong read = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long startedAt = System.nanoTime();
+
+        Flux.using(() -> Files.lines(path), Flux::fromStream, Stream::close)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .doOnNext(line -> read.incrementAndGet())
+                .<Message>handle((line, sink) -> {
+                    Message message = parse(line);
+                    if (message == null) {
+                        rejected.incrementAndGet();
+                        log.debug("Skipping malformed legacy row: {}", line);
+                        return;
+                    }
+                    sink.next(message);
+                })
+                .doOnNext(message -> tokenFilter.add(message.getId()))
+                .buffer(batchSize)
+                .concatMap(messageRepository::importLinks)
+                .doOnNext(statisticsService::linksAdded)
+                .reduce(0L, (total, inserted) -> total + inserted)
+                .subscribe(
+                        inserted -> log.info("Legacy import from {} done: {} rows, {} inserted, {} rejected in {} ms",
+                                path, read.get(), inserted, rejected.get(), (System.nanoTime() - startedAt) / 1_000_000),
+                        error -> log.error("Legacy import from {} failed after {} rows", path, read.get(), error)
+                );
+    }
+
+    private Message parse(String line) {
+        String[] columns = line.split(",");
+        if (columns.length < 3 || columns.length > 4 || columns[0].isBlank()) {
+            return null;
+        }
+
+        try {
+            long channelId = Long.parseLong(columns[1].trim());
+            List<Long> ids = columns.length == 4
+                    ? range(Long.parseLong(columns[2].trim()), Long.parseLong(columns[3].trim()))
+                    : list(columns[2].trim());
+            if (ids == null || ids.isEmpty()) {
+                return null;
+            }
+            return Message.builder()
+                    .id(columns[0].trim())
+                    .channelId(channelId)
+                    .messageIds(ids)
+                    .createdAt(Instant.now())
+                    .build();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private List<Long> range(long first, long last) {
+        if (first <= 0 || last < first || last - first + 1 > maxRange) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>((int) (last - first + 1));
+        for (long id = first; id <= last; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static List<Long> list(String column) {
+        List<Long> ids = new ArrayList<>();
+        for (String part : column.split("\\s+")) {
+            long id = Long.parseLong(part);
+            if (id <= 0) return null;
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,193 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.repository.convert.EntityConverters;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-ahead journal untuk link yang tokennya sudah dibagikan tapi belum tersimpan di Mongo.
+ * Format per baris saat dibuat:
+ * {@code P <token> <channelId> <restricted> <validated> <createdAtMillis> <id,id,...> <contentKey|-> <expiresAtMillis|-> <maxUses|-> <contents|->}
+ * dan {@code A <token>} setelah tersimpan. Record {@code P} di-fsync sebelum token dikembalikan.
+ * {@code contents} adalah JSON dokumen Mongo yang di-Base64 agar file id tersimpan ikut ter-replay.
+ */
+@Slf4j
+@Component
+public class LinkJournal {
+
+    @Value("${forcesub.journal.path:data/link-journal.log}")
+    private String journalPath;
+
+    private Path path;
+    private FileChannel channel;
+
+    @PostConstruct
+    public void init() throws IOException {
+        path = Path.of(journalPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = open(path);
+        log.info("Link journal at {}", path.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Record yang belum di-ack, urut sesuai waktu tulis.
+     */
+    public synchronized List<Message> recover() {
+        Map<String, Message> pending = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ");
+                // record lama tanpa expiresAt/maxUses punya 8 kolom, tanpa contents 10 kolom
+                if ((parts.length == 8 || parts.length == 10 || parts.length == 11) && parts[0].equals("P")) {
+                    pending.put(parts[1], Message.builder()
+                            .id(parts[1])
+                            .channelId(Long.parseLong(parts[2]))
+                            .contentRestricted(Boolean.parseBoolean(parts[3]))
+                            .validated(Boolean.parseBoolean(parts[4]))
+                            .createdAt(Instant.ofEpochMilli(Long.parseLong(parts[5])))
+                            .messageIds(Arrays.stream(parts[6].split(",")).map(Long::valueOf).toList())
+                            .contentKey(parts[7].equals("-") ? null : parts[7])
+                            .expiresAt(parts.length >= 10 && !parts[8].equals("-") ? Instant.ofEpochMilli(Long.parseLong(parts[8])) : null)
+                            .maxUses(parts.length >= 10 && !parts[9].equals("-") ? Integer.valueOf(parts[9]) : null)
+                            .contents(parts.length == 11 ? decodeContents(parts[10]) : null)
+                            .viewCount(0)
+                            .build());
+                } else if (parts.length == 2 && parts[0].equals("A")) {
+                    pending.remove(parts[1]);
+                } else if (!line.isBlank()) {
+                    log.warn("Skipping corrupt journal line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return List.copyOf(pending.values());
+    }
+
+    public synchronized void append(Collection<Message> messages) {
+        StringBuilder records = new StringBuilder();
+        for (Message message : messages) {
+            records.append(record(message));
+        }
+        try {
+            write(records.toString());
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ack tidak di-fsync: kalau hilang saat crash, record hanya di-replay ulang (upsert idempoten).
+     */
+    public synchronized void ack(String token) {
+        try {
+            write("A " + token + "\n");
+        } catch (IOException e) {
+            log.warn("Failed to ack token {} in journal: {}", token, e.getMessage());
+        }
+    }
+
+    /**
+     * Tulis ulang journal hanya berisi record yang masih pending, lewat file sementara + atomic move.
+     * Snapshot diambil di dalam lock journal: {@link #append} yang berjalan bersamaan selalu tercatat
+     * di snapshot atau ditulis setelah file baru terpasang, tidak pernah hilang di antaranya.
+     *
+     * @return snapshot yang ditulis
+     */
+    public synchronized List<Message> compact(Supplier<? extends Collection<Message>> pending) {
+        List<Message> stillPending = List.copyOf(pending.get());
+        try {
+            if (stillPending.isEmpty()) {
+                channel.truncate(0);
+                channel.force(true);
+                return stillPending;
+            }
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            String content = stillPending.stream().map(LinkJournal::record).collect(Collectors.joining());
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+                out.force(true);
+            }
+            channel.close();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = open(path);
+        } catch (IOException e) {
+            log.error("Failed to compact link journal: {}", e.getMessage());
+        }
+        return stillPending;
+    }
+
+    private void write(String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static String record(Message message) {
+        return "P " + message.getId()
+                + " " + message.getChannelId()
+                + " " + message.isContentRestricted()
+                + " " + message.isValidated()
+                + " " + message.getCreatedAt().toEpochMilli()
+                + " " + message.getMessageIds().stream().map(String::valueOf).collect(Collectors.joining(","))
+                + " " + (message.getContentKey() != null ? message.getContentKey() : "-")
+                + " " + (message.getExpiresAt() != null ? String.valueOf(message.getExpiresAt().toEpochMilli()) : "-")
+                + " " + (message.getMaxUses() != null ? String.valueOf(message.getMaxUses()) : "-")
+                + " " + encodeContents(message.getContents())
+                + "\n";
+    }
+
+    private static String encodeContents(List<StoredContent> contents) {
+        if (contents == null) return "-";
+        Document document = EntityConverters.MessageWriter.INSTANCE.convert(Message.builder().contents(contents).build());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<StoredContent> decodeContents(String encoded) {
+        if (encoded.equals("-")) return null;
+        String json = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        return EntityConverters.MessageReader.INSTANCE.convert(Document.parse(json)).getContents();
+    }
+}
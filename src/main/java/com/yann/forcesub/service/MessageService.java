@@ -1,41 +1,468 @@
 package com.yann.forcesub.service;
 
 import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.event.LinkViewEvent;
 import com.yann.forcesub.repository.MessageRepository;
+import com.yann.forcesub.util.Hashing;
+import com.yann.forcesub.util.LongHashSet;
+import com.yann.forcesub.util.TokenGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.LongStream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MessageService {
 
     private final MessageRepository messageRepository;
+    private final LinkJournal linkJournal;
+    private final TokenFilter tokenFilter;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final StatisticsService statisticsService;
+
+    @Value("${forcesub.journal.retry.minutes:1}")
+    private int journalRetryMinutes;
+
+    @Value("${forcesub.replica.refresh.seconds:15}")
+    private int refreshSeconds;
+
+    /**
+     * Link yang tokennya sudah dibagikan tapi belum dikonfirmasi tersimpan di Mongo.
+     */
+    private final Map<String, Message> pendingLinks = new ConcurrentHashMap<>();
+
+    /**
+     * Hash 64-bit dari setiap contentKey yang pernah disimpan. Jika hash tidak ada, konten pasti baru
+     * dan insert tidak perlu query; jika ada, token lama dicari lewat index unik contentKey.
+     */
+    private final LongHashSet contentHashes = new LongHashSet(4096);
+
+    // hash token link yang semua pesan sumbernya sudah dihapus
+    private final LongHashSet tombstones = new LongHashSet(1024);
+
+    // contentKey -> token untuk link yang belum tersimpan, sekaligus reservasi agar dua post bersamaan tidak dobel
+    private final Map<String, String> pendingContentKeys = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        List<Message> recovered = linkJournal.recover();
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} unpersisted links from journal", recovered.size());
+            recovered.forEach(message -> {
+                pendingLinks.put(message.getId(), message);
+                tokenFilter.add(message.getId());
+                if (message.getContentKey() != null) {
+                    pendingContentKeys.put(message.getContentKey(), message.getId());
+                    contentHashes.add(Hashing.hash64(message.getContentKey()));
+                }
+            });
+            persist(recovered, true);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "link-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                this::retryPending,
+                journalRetryMinutes,
+                journalRetryMinutes,
+                TimeUnit.MINUTES
+        );
+
+        if (refreshSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(
+                    this::refreshFromStore,
+                    refreshSeconds,
+                    refreshSeconds,
+                    TimeUnit.SECONDS
+            );
+        }
+    }
+
+    /**
+     * Pastikan index lalu muat hash contentKey dan tombstone link mati; dijalankan oleh {@link WarmupService}.
+     */
+    public Mono<Void> loadIndexes() {
+        Mono<Void> contentKeys = messageRepository.ensureIndexes()
+                .thenMany(messageRepository.findAllContentKeys())
+                .doOnNext(message -> contentHashes.add(Hashing.hash64(message.getContentKey())))
+                .doOnError(error -> log.error("Failed to load content keys", error))
+                .doOnComplete(() -> log.info("Loaded {} content keys for deduplication", contentHashes.size()))
+                .then();
+
+        Mono<Void> dead = messageRepository.findAllDead()
+                .doOnNext(message -> tombstones.add(Hashing.hash64(message.getId())))
+                .doOnError(error -> log.error("Failed to load tombstones", error))
+                .doOnComplete(() -> log.info("Loaded {} dead link tombstones", tombstones.size()))
+                .then();
+
+        return Mono.when(contentKeys, dead);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+    }
 
     public Mono<String> createBatchLink(long channelId, long startMessageId, long endMessageId, boolean contentRestricted) {
         List<Long> ids = LongStream.rangeClosed(startMessageId, endMessageId)
                 .boxed()
                 .toList();
-        Message message = Message.builder()
+        return createBatchLink(channelId, ids, contentRestricted);
+    }
+
+    public Mono<String> createBatchLink(long channelId, List<Long> ids, boolean contentRestricted) {
+        return createBatchLink(channelId, ids, contentRestricted, null);
+    }
+
+    /**
+     * Jika {@code contentKey} sudah punya link, token lama dikembalikan dan tidak ada dokumen baru.
+     */
+    public Mono<String> createBatchLink(long channelId, List<Long> ids, boolean contentRestricted, String contentKey) {
+        return createBatchLink(channelId, new LinkRequest(ids, contentKey), contentRestricted);
+    }
+
+    public Mono<String> createBatchLink(long channelId, LinkRequest request, boolean contentRestricted) {
+        return createBatchLinks(channelId, List.of(request), contentRestricted)
+                .next();
+    }
+
+    /**
+     * Seperti {@link #createBatchLink(long, List, boolean)}, untuk id yang sudah dipastikan ada;
+     * saat delivery pesan-pesan ini tidak di-prefetch ulang.
+     */
+    public Mono<String> createValidatedLink(long channelId, List<Long> ids, List<StoredContent> contents, boolean contentRestricted) {
+        return createValidatedLink(channelId, ids, contents, contentRestricted, LinkLimits.NONE);
+    }
+
+    public Mono<String> createValidatedLink(long channelId, List<Long> ids, List<StoredContent> contents,
+                                            boolean contentRestricted, LinkLimits limits) {
+        Message message = newMessage(channelId, ids, contentRestricted);
+        message.setValidated(true);
+        message.setContents(contents);
+        message.setExpiresAt(limits.expiresAt());
+        message.setMaxUses(limits.maxUses());
+        return issue(List.of(message))
+                .next();
+    }
+
+    /**
+     * Membuat banyak link sekaligus dalam satu {@code insertAll}; token dikembalikan sesuai urutan {@code requests}.
+     * Request dengan contentKey yang sudah dikenal memakai token lama.
+     */
+    public Flux<String> createBatchLinks(long channelId, List<LinkRequest> requests, boolean contentRestricted) {
+        return Flux.fromIterable(requests)
+                .concatMap(request -> existingToken(request.contentKey())
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()))
+                .collectList()
+                .flatMapMany(existing -> {
+                    String[] tokens = new String[requests.size()];
+                    List<Message> fresh = new ArrayList<>(requests.size());
+
+                    for (int i = 0; i < requests.size(); i++) {
+                        if (existing.get(i).isPresent()) {
+                            tokens[i] = existing.get(i).get();
+                            continue;
+                        }
+                        LinkRequest request = requests.get(i);
+                        Message message = newMessage(channelId, request.messageIds(), contentRestricted);
+                        message.setContents(request.contents());
+                        if (request.contentKey() != null) {
+                            String reserved = pendingContentKeys.putIfAbsent(request.contentKey(), message.getId());
+                            if (reserved != null) {
+                                tokens[i] = reserved;
+                                continue;
+                            }
+                            message.setContentKey(request.contentKey());
+                            contentHashes.add(Hashing.hash64(request.contentKey()));
+                        }
+                        tokens[i] = message.getId();
+                        fresh.add(message);
+                    }
+
+                    if (fresh.size() < requests.size()) {
+                        log.info("Deduplicated {} of {} links to existing tokens", requests.size() - fresh.size(), requests.size());
+                    }
+                    if (fresh.isEmpty()) {
+                        return Flux.fromArray(tokens);
+                    }
+                    return issue(fresh).thenMany(Flux.fromArray(tokens));
+                });
+    }
+
+    private Mono<String> existingToken(String contentKey) {
+        if (contentKey == null || !contentHashes.contains(Hashing.hash64(contentKey))) {
+            return Mono.empty();
+        }
+        String pending = pendingContentKeys.get(contentKey);
+        if (pending != null) {
+            return Mono.just(pending);
+        }
+        return messageRepository.findFirstByContentKey(contentKey)
+                .map(Message::getId);
+    }
+
+    /**
+     * Token dibuat di JVM dan dikembalikan setelah tercatat (fsync) di journal; penulisan ke Mongo
+     * berjalan di belakang dan di-retry sampai berhasil.
+     */
+    private Flux<String> issue(List<Message> messages) {
+        return Mono.fromRunnable(() -> {
+                    messages.forEach(message -> {
+                        pendingLinks.put(message.getId(), message);
+                        tokenFilter.add(message.getId());
+                    });
+                    linkJournal.append(messages);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(e -> messages.forEach(message -> pendingLinks.remove(message.getId())))
+                .doOnSuccess(v -> persist(messages, false))
+                .thenMany(Flux.fromIterable(messages))
+                .map(Message::getId);
+    }
+
+    /**
+     * Penulisan pertama dan replay sama-sama insert-if-absent: record bisa saja sudah tersimpan sebelum ack-nya
+     * tercatat, dan dokumen itu tidak boleh ditimpa karena {@code viewCount}-nya mungkin sudah bertambah.
+     */
+    private void persist(List<Message> messages, boolean replay) {
+        Flux<Message> write = messageRepository.insertUnordered(messages)
+                .flatMapMany(collided -> {
+                    if (collided.isEmpty()) {
+                        return Flux.fromIterable(messages);
+                    }
+                    // contentKey ternyata sudah ada (set hash belum selesai dimuat); token sudah dibagikan,
+                    // jadi link yang bentrok tetap disimpan tanpa contentKey agar tidak mati
+                    log.warn("Content key collision on insert, storing {} of {} links without key",
+                            collided.size(), messages.size());
+                    List<Message> inserted = new ArrayList<>(messages.size());
+                    List<Message> stripped = new ArrayList<>(collided.size());
+                    for (int i = 0; i < messages.size(); i++) {
+                        Message message = messages.get(i);
+                        if (collided.contains(i)) {
+                            pendingContentKeys.remove(message.getContentKey(), message.getId());
+                            message.setContentKey(null);
+                            stripped.add(message);
+                        } else {
+                            inserted.add(message);
+                        }
+                    }
+                    // tanpa contentKey tidak ada lagi bentrok selain _id (sudah tersimpan)
+                    return Flux.fromIterable(inserted).concatWith(messageRepository.insertUnordered(stripped)
+                            .thenMany(Flux.fromIterable(stripped)));
+                });
+
+        write.retryWhen(Retry.backoff(3, Duration.ofMillis(200)))
+                .subscribe(
+                        saved -> {
+                            // replay tidak dihitung: dokumennya mungkin sudah tersimpan sebelum crash; dikoreksi saat reseed
+                            if (!replay) {
+                                statisticsService.linksAdded(1);
+                            }
+                            pendingLinks.remove(saved.getId());
+                            if (saved.getContentKey() != null) {
+                                pendingContentKeys.remove(saved.getContentKey(), saved.getId());
+                            }
+                            linkJournal.ack(saved.getId());
+                        },
+                        e -> log.error("Failed to persist {} links, will retry from journal: {}",
+                                messages.size(), e.getMessage())
+                );
+    }
+
+    private void retryPending() {
+        try {
+            List<Message> pending = linkJournal.compact(() -> pendingLinks.values());
+            if (!pending.isEmpty()) {
+                log.info("Retrying {} pending links", pending.size());
+                persist(pending, true);
+            }
+        } catch (Exception e) {
+            log.error("Error during link journal retry", e);
+        }
+    }
+
+    /**
+     * Link yang dibuat replica lain: token dan contentKey-nya dimasukkan ke filter dan set hash.
+     * Link lama yang menjadi dead di replica lain baru di-tombstone saat pertama kali di-lookup.
+     */
+    private void refreshFromStore() {
+        if (!tokenFilter.isReady()) return;
+        try {
+            Instant startedAt = Instant.now();
+            Instant since = tokenFilter.knownUntil() != null
+                    ? tokenFilter.knownUntil()
+                    : startedAt.minusMillis(TokenFilter.OVERLAP_MS);
+            messageRepository.findKeysCreatedSince(since)
+                    .doOnNext(message -> {
+                        tokenFilter.add(message.getId());
+                        if (message.getContentKey() != null) {
+                            contentHashes.add(Hashing.hash64(message.getContentKey()));
+                        }
+                    })
+                    .then()
+                    .block(Duration.ofSeconds(refreshSeconds * 2L));
+            tokenFilter.markRefreshed(startedAt);
+        } catch (Exception e) {
+            log.warn("Failed to refresh links from other replicas: {}", e.getMessage());
+        }
+    }
+
+    private Message newMessage(long channelId, List<Long> ids, boolean contentRestricted) {
+        return Message.builder()
+                .id(TokenGenerator.next())
                 .channelId(channelId)
                 .messageIds(ids)
                 .contentRestricted(contentRestricted)
                 .viewCount(0)
+                .createdAt(Instant.now())
                 .build();
-        return messageRepository.save(message)
-                .map(Message::getId);
     }
-    public Mono<String> createSingleLink(long channelId, long messageId, boolean contentRestricted) {
-        return createBatchLink(channelId, messageId, messageId, contentRestricted);
+    /**
+     * Dipanggil saat pesan sumber diedit; {@code content} null berarti tipe barunya tidak bisa disimpan.
+     */
+    public Mono<Long> refreshStoredContent(long channelId, long messageId, StoredContent content) {
+        pendingLinks.values().stream()
+                .filter(message -> message.getChannelId() == channelId && message.getContents() != null)
+                .forEach(message -> {
+                    List<StoredContent> contents = new ArrayList<>(message.getContents());
+                    for (int i = 0; i < contents.size(); i++) {
+                        if (contents.get(i).getMessageId() == messageId) {
+                            if (content != null) {
+                                content.setMediaAlbumId(contents.get(i).getMediaAlbumId());
+                                contents.set(i, content);
+                            }
+                            message.setContents(content != null ? contents : null);
+                            break;
+                        }
+                    }
+                });
+
+        return content != null
+                ? messageRepository.updateStoredContent(channelId, content)
+                : messageRepository.clearStoredContent(channelId, messageId);
+    }
+
+    /**
+     * True jika semua konten link ini sudah dihapus; cukup dicek di memori tanpa query atau panggilan TDLib.
+     */
+    public boolean isDead(String token) {
+        return tombstones.contains(Hashing.hash64(token));
     }
-    public Mono<Message> findByToken(String token) {
+
+    public Flux<String> removeSourceMessages(long channelId, List<Long> messageIds) {
+        pendingLinks.values().stream()
+                .filter(message -> message.getChannelId() == channelId)
+                .forEach(message -> {
+                    List<Long> remaining = new ArrayList<>(message.getMessageIds());
+                    if (!remaining.removeAll(messageIds)) return;
+                    message.setMessageIds(remaining);
+                    if (message.getContents() != null) {
+                        message.setContents(message.getContents().stream()
+                                .filter(content -> !messageIds.contains(content.getMessageId()))
+                                .toList());
+                    }
+                    if (remaining.isEmpty()) {
+                        message.setDead(true);
+                        tombstones.add(Hashing.hash64(message.getId()));
+                        // sama seperti dokumen di Mongo: konten yang diposting ulang harus dapat token baru
+                        if (message.getContentKey() != null) {
+                            pendingContentKeys.remove(message.getContentKey(), message.getId());
+                            message.setContentKey(null);
+                        }
+                    }
+                });
+
+        return messageRepository.removeSourceMessages(channelId, messageIds)
+                .doOnNext(token -> tombstones.add(Hashing.hash64(token)));
+    }
+
+    /**
+     * Batas opsional link; null berarti tanpa batas.
+     */
+    public record LinkLimits(Instant expiresAt, Integer maxUses) {
+        public static final LinkLimits NONE = new LinkLimits(null, null);
+    }
+
+    public record LinkRequest(List<Long> messageIds, String contentKey, List<StoredContent> contents) {
+        public LinkRequest(List<Long> messageIds, String contentKey) {
+            this(messageIds, contentKey, null);
+        }
+    }
+
+    public Mono<Message> lookupToken(String token) {
+        Message pending = pendingLinks.get(token);
+        if (pending != null) {
+            return Mono.just(pending);
+        }
         return messageRepository.findById(token)
-                .flatMap(msg -> {
-                    msg.setViewCount(msg.getViewCount() + 1);
-                    return messageRepository.save(msg);
+                .doOnNext(message -> {
+                    // dimatikan di replica lain setelah tombstone dimuat
+                    if (message.isDead()) {
+                        tombstones.add(Hashing.hash64(token));
+                    }
                 });
     }
+
+    public Mono<Void> recordView(String token) {
+        return messageRepository.incrementViewCount(token)
+                .doOnNext(this::publishView)
+                .then();
+    }
+
+    /**
+     * Mencatat satu pengambilan. Untuk link dengan {@code maxUses}, penambahan dilakukan atomik di Mongo
+     * dan false berarti kuota sudah habis (atau link kedaluwarsa) sehingga konten tidak boleh dikirim.
+     */
+    public Mono<Boolean> claimUse(Message message) {
+        if (message.getMaxUses() == null) {
+            return recordView(message.getId()).thenReturn(true);
+        }
+        Message pending = pendingLinks.get(message.getId());
+        if (pending != null) {
+            synchronized (pending) {
+                if (pending.isExhausted() || pending.isExpired(Instant.now())) return Mono.just(false);
+                pending.setViewCount(pending.getViewCount() + 1);
+                publishView(pending);
+                return Mono.just(true);
+            }
+        }
+        return messageRepository.claimUse(message.getId(), Instant.now())
+                .doOnNext(this::publishView)
+                .hasElement();
+    }
+
+    private void publishView(Message message) {
+        applicationEventPublisher.publishEvent(new LinkViewEvent(this, message.getId(), message.getViewCount()));
+    }
 }
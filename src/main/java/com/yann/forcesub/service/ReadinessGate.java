@@ -0,0 +1,92 @@
+package com.yann.forcesub.service;
+
+import it.tdlight.client.CommandHandler;
+import it.tdlight.client.GenericUpdateHandler;
+import it.tdlight.jni.TdApi;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Menahan dispatch update TDLib sampai {@link WarmupService} selesai memuat cache. Tidak punya dependency
+ * sehingga bisa dipasang langsung saat client TDLib dibuat. Update yang datang selama warm-up diantrekan,
+ * bukan ditunggu di thread TDLib, lalu dijalankan berurutan saat gate dibuka. Jika warm-up melewati
+ * {@code forcesub.warmup.timeout.seconds}, gate dibuka dengan cache seadanya.
+ */
+@Slf4j
+@Component
+public class ReadinessGate {
+
+    private final Queue<Runnable> held = new ArrayDeque<>();
+    private volatile boolean open;
+
+    @Value("${forcesub.warmup.timeout.seconds:120}")
+    private long timeoutSeconds;
+
+    @PostConstruct
+    public void init() {
+        Mono.delay(Duration.ofSeconds(timeoutSeconds))
+                .subscribe(v -> {
+                    if (!open) {
+                        log.warn("Warm-up still running after {} s, dispatching updates anyway", timeoutSeconds);
+                        open();
+                    }
+                });
+    }
+
+    /**
+     * Menjalankan antrean di thread pemanggil; gate baru terbuka setelah antrean kosong agar urutan update terjaga.
+     */
+    public synchronized void open() {
+        int drained = 0;
+        while (true) {
+            Runnable task;
+            synchronized (held) {
+                task = held.poll();
+                if (task == null) {
+                    open = true;
+                    break;
+                }
+            }
+            drained++;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Held update failed", e);
+            }
+        }
+        if (drained > 0) {
+            log.info("Dispatched {} updates held during warm-up", drained);
+        }
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public <T extends TdApi.Update> GenericUpdateHandler<T> gate(GenericUpdateHandler<T> handler) {
+        return update -> dispatch(() -> handler.onUpdate(update));
+    }
+
+    public CommandHandler gate(CommandHandler handler) {
+        return (chat, commandSender, arguments) -> dispatch(() -> handler.onCommand(chat, commandSender, arguments));
+    }
+
+    private void dispatch(Runnable task) {
+        if (!open) {
+            synchronized (held) {
+                if (!open) {
+                    held.add(task);
+                    return;
+                }
+            }
+        }
+        task.run();
+    }
+}
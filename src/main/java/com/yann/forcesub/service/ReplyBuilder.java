@@ -12,11 +12,55 @@ public class ReplyBuilder {
         return new InlineKeyboardBuilder();
     }
 
+    /**
+     * Keyboard yang dikompilasi sekali. Tombol tetap dipakai bersama antar render,
+     * hanya slot URL yang diganti per request.
+     */
+    public static final class KeyboardTemplate {
+        private final TdApi.InlineKeyboardButton[][] rows;
+        private final int[][] slots;
+        private final TdApi.ReplyMarkupInlineKeyboard staticMarkup;
+
+        private KeyboardTemplate(TdApi.InlineKeyboardButton[][] rows, int[][] slots) {
+            this.rows = rows;
+            this.slots = slots;
+            this.staticMarkup = slots.length == 0 ? new TdApi.ReplyMarkupInlineKeyboard(rows) : null;
+        }
+
+        public int slotCount() {
+            return slots.length;
+        }
+
+        public TdApi.ReplyMarkup render(String... urls) {
+            if (urls.length != slots.length) {
+                throw new IllegalArgumentException("Expected " + slots.length + " urls but got " + urls.length);
+            }
+            if (staticMarkup != null) {
+                return staticMarkup;
+            }
+
+            TdApi.InlineKeyboardButton[][] rendered = rows.clone();
+            for (int i = 0; i < slots.length; i++) {
+                int row = slots[i][0];
+                int column = slots[i][1];
+                if (rendered[row] == rows[row]) {
+                    rendered[row] = rows[row].clone();
+                }
+                TdApi.InlineKeyboardButton button = new TdApi.InlineKeyboardButton();
+                button.text = rows[row][column].text;
+                button.type = new TdApi.InlineKeyboardButtonTypeUrl(urls[i]);
+                rendered[row][column] = button;
+            }
+            return new TdApi.ReplyMarkupInlineKeyboard(rendered);
+        }
+    }
+
 
     public static class InlineKeyboardBuilder {
         private final List<List<TdApi.InlineKeyboardButton>> rows = new ArrayList<>();
         private List<TdApi.InlineKeyboardButton> currentRow = new ArrayList<>();
         private int maxButtonsPerRow = Integer.MAX_VALUE;
+        private final List<int[]> slots = new ArrayList<>();
 
         public InlineKeyboardBuilder row(int maxButtonsPerRow) {
             this.maxButtonsPerRow = maxButtonsPerRow;
@@ -38,6 +82,11 @@ public class ReplyBuilder {
             currentRow.add(button);
             return this;
         }
+        public InlineKeyboardBuilder addUrlSlot(String text) {
+            checkAndWrapRow();
+            slots.add(new int[]{rows.size(), currentRow.size()});
+            return addUrl(text, "");
+        }
         public InlineKeyboardBuilder add(TdApi.InlineKeyboardButton button) {
             checkAndWrapRow();
             currentRow.add(button);
@@ -68,6 +117,14 @@ public class ReplyBuilder {
             return markup;
         }
 
+        public KeyboardTemplate buildTemplate() {
+            TdApi.ReplyMarkup markup = build();
+            TdApi.InlineKeyboardButton[][] buttons = markup instanceof TdApi.ReplyMarkupInlineKeyboard inline
+                    ? inline.rows
+                    : new TdApi.InlineKeyboardButton[0][];
+            return new KeyboardTemplate(buttons, slots.toArray(new int[0][]));
+        }
+
         public InlineKeyboardBuilder newRow() {
             if (!currentRow.isEmpty()) {
                 rows.add(new ArrayList<>(currentRow));
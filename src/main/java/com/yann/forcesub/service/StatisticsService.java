@@ -0,0 +1,221 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.entity.DeliveryEvent;
+import com.yann.forcesub.event.LinkViewEvent;
+import com.yann.forcesub.repository.DeliveryEventRepository;
+import com.yann.forcesub.repository.MessageRepository;
+import com.yann.forcesub.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter statistik admin yang dibaca O(1) tanpa count ke Mongo. Counter diisi saat startup dari
+ * {@code estimatedDocumentCount} lalu diperbarui oleh service yang menulis. Dokumen yang dihapus TTL index
+ * tidak terlihat aplikasi, jadi user dan link diisi ulang berkala dari metadata koleksi.
+ * <p>
+ * Total views di-checkpoint ke file sehingga startup tidak menjalankan agregasi {@code $sum}. Setiap replica
+ * hanya melihat view miliknya sendiri, jadi total diselaraskan dengan agregasi pada jadwal reseed yang sama;
+ * di antara dua reseed angka antar replica bisa sedikit berbeda.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatisticsService {
+
+    private final UserRepository userRepository;
+    private final MessageRepository messageRepository;
+    private final DeliveryEventRepository deliveryEventRepository;
+    private final ChannelService channelService;
+
+    @Value("${forcesub.stats.reseed.minutes:60}")
+    private int reseedMinutes;
+
+    @Value("${forcesub.stats.path:data/stats.views}")
+    private String checkpointPath;
+
+    @Value("${forcesub.stats.checkpoint.minutes:5}")
+    private int checkpointMinutes;
+
+    public record Statistics(long users, long links, long views, long deliveriesToday, int activeChannels) {
+    }
+
+    private record DailyCounter(LocalDate day, LongAdder count) {
+    }
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong links = new AtomicLong();
+    private final LongAdder views = new LongAdder();
+    private final AtomicReference<DailyCounter> deliveries =
+            new AtomicReference<>(new DailyCounter(LocalDate.now(ZoneOffset.UTC), new LongAdder()));
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean seedingViews;
+    private long checkpointedViews = -1;
+
+    @PostConstruct
+    public void init() {
+        seedCollections();
+
+        if (!loadCheckpoint()) {
+            // checkpoint ditahan sampai seed selesai agar total parsial tidak tersimpan
+            seedingViews = true;
+            messageRepository.totalViews()
+                    .doFinally(signal -> seedingViews = false)
+                    .subscribe(total -> {
+                        views.add(total);
+                        log.info("Statistics seeded with {} views", total);
+                    }, error -> log.error("Failed to seed view counter", error));
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        deliveryEventRepository.countByOutcomeAndTimestampGreaterThanEqual(DeliveryEvent.Outcome.DELIVERED,
+                        today.atStartOfDay().toInstant(ZoneOffset.UTC))
+                .subscribe(count -> deliveriesOf(today).add(count),
+                        error -> log.error("Failed to seed delivery counter", error));
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                () -> {
+                    seedCollections();
+                    reseedViews();
+                },
+                reseedMinutes,
+                reseedMinutes,
+                TimeUnit.MINUTES
+        );
+
+        scheduler.scheduleWithFixedDelay(
+                this::checkpoint,
+                checkpointMinutes,
+                checkpointMinutes,
+                TimeUnit.MINUTES
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+        checkpoint();
+    }
+
+    public Statistics snapshot() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return new Statistics(users.get(), links.get(), views.sum(), deliveriesOf(today).sum(),
+                channelService.activeChannels().size());
+    }
+
+    public void usersAdded(long count) {
+        users.addAndGet(count);
+    }
+
+    public void usersRemoved(long count) {
+        users.addAndGet(-count);
+    }
+
+    public void linksAdded(long count) {
+        links.addAndGet(count);
+    }
+
+    public void recordDelivery(DeliveryEvent.Outcome outcome) {
+        if (outcome == DeliveryEvent.Outcome.DELIVERED) {
+            deliveriesOf(LocalDate.now(ZoneOffset.UTC)).increment();
+        }
+    }
+
+    @EventListener
+    public void onLinkView(LinkViewEvent event) {
+        views.increment();
+    }
+
+    private LongAdder deliveriesOf(LocalDate today) {
+        DailyCounter current = deliveries.get();
+        if (current.day().equals(today)) {
+            return current.count();
+        }
+        // hari berganti (UTC): counter baru, pemenang CAS dipakai semua thread
+        DailyCounter next = new DailyCounter(today, new LongAdder());
+        return deliveries.compareAndSet(current, next) ? next.count() : deliveries.get().count();
+    }
+
+    private boolean loadCheckpoint() {
+        Path path = Path.of(checkpointPath);
+        if (!Files.exists(path)) return false;
+        try {
+            long total = Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim());
+            views.add(total);
+            checkpointedViews = total;
+            log.info("Statistics restored {} views from checkpoint {}", total, path);
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Statistics checkpoint {} unreadable, seeding from Mongo: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private synchronized void checkpoint() {
+        if (seedingViews) return;
+        long total = views.sum();
+        if (total == checkpointedViews) return;
+        Path path = Path.of(checkpointPath);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(tmp, Long.toString(total), StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpointedViews = total;
+        } catch (IOException e) {
+            log.error("Failed to checkpoint statistics to {}", path, e);
+        }
+    }
+
+    private void reseedViews() {
+        if (seedingViews) return;
+        seedingViews = true;
+        // view lokal yang masuk selama agregasi berjalan tetap dihitung
+        long before = views.sum();
+        messageRepository.totalViews()
+                .doFinally(signal -> seedingViews = false)
+                .subscribe(total -> {
+                    views.add(total - before);
+                    log.info("Statistics views reseeded: {} (was {})", total, before);
+                }, error -> log.error("Failed to reseed view counter", error));
+    }
+
+    private void seedCollections() {
+        Mono.zip(userRepository.estimatedCount(), messageRepository.estimatedCount())
+                .subscribe(counts -> {
+                    users.set(counts.getT1());
+                    links.set(counts.getT2());
+                    log.info("Statistics seeded: {} users, {} links", counts.getT1(), counts.getT2());
+                }, error -> log.error("Failed to seed statistics counters", error));
+    }
+}
@@ -0,0 +1,198 @@
+package com.yann.forcesub.service;
+
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.repository.MessageRepository;
+import com.yann.forcesub.util.Hashing;
+import com.yann.forcesub.util.ScalableBloomFilter;
+import com.yann.forcesub.util.TokenGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bloom filter semua token link yang pernah dibuat. Token yang pasti tidak ada ditolak tanpa query ke Mongo;
+ * selama filter belum selesai dimuat semua token diloloskan.
+ * <p>
+ * Jika {@code forcesub.token.filter.path} diisi, snapshot disimpan berkala dan saat shutdown; startup
+ * berikutnya hanya memuat id yang dibuat setelah snapshot.
+ * <p>
+ * Token dari replica lain masuk lewat refresh berkala {@link MessageService}. Token yang waktu pembuatannya
+ * (bagian depan token) lebih baru dari refresh terakhir dikurangi overlap belum tentu sudah terlihat,
+ * jadi diloloskan ke lookup Mongo alih-alih ditolak.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenFilter {
+
+    // selisih jam dan dokumen yang masih di journal saat snapshot atau refresh diambil
+    static final long OVERLAP_MS = 10 * 60 * 1000;
+
+    // token dengan waktu di masa depan lebih dari ini pasti palsu
+    private static final long CLOCK_SKEW_MS = 60 * 1000;
+
+    private final MessageRepository messageRepository;
+
+    @Value("${forcesub.token.filter.capacity:100000}")
+    private int initialCapacity;
+
+    @Value("${forcesub.token.filter.fpp:0.001}")
+    private double falsePositive;
+
+    @Value("${forcesub.token.filter.path:}")
+    private String snapshotPath;
+
+    @Value("${forcesub.token.filter.snapshot.minutes:30}")
+    private int snapshotMinutes;
+
+    private volatile ScalableBloomFilter filter;
+    private volatile boolean ready;
+
+    // token yang dibuat sejak waktu ini mungkin belum terlihat; null jika refresh antar replica tidak aktif
+    private volatile Instant knownUntil;
+
+    // waktu snapshot yang dimuat, null jika filter dibangun dari nol
+    private Instant snapshotSavedAt;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        snapshotSavedAt = loadSnapshot();
+        if (filter == null) {
+            filter = new ScalableBloomFilter(initialCapacity, falsePositive);
+        }
+
+        if (isPersistent()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "token-filter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::saveSnapshot, snapshotMinutes, snapshotMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+        saveSnapshot();
+    }
+
+    /**
+     * Muat token dari Mongo (semua, atau sejak snapshot); dijalankan oleh {@link WarmupService}.
+     * Jika gagal filter tetap belum ready sehingga token yang tidak dikenal tetap diloloskan.
+     */
+    public Mono<Void> load() {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            Flux<Message> ids = snapshotSavedAt != null
+                    ? messageRepository.findIdsCreatedSince(snapshotSavedAt.minusMillis(OVERLAP_MS))
+                    : messageRepository.findAllIds();
+
+            return ids.doOnNext(message -> add(message.getId()))
+                    .doOnError(error -> log.error("Failed to load token filter, unknown tokens stay allowed", error))
+                    .doOnComplete(() -> {
+                        ready = true;
+                        log.info("Token filter ready: {} tokens, {} KB, loaded in {} ms",
+                                filter.count(), filter.sizeInBytes() / 1024, (System.nanoTime() - startedAt) / 1_000_000);
+                    })
+                    .then();
+        });
+    }
+
+    public void add(String token) {
+        filter.add(Hashing.hash64(token));
+    }
+
+    /**
+     * False hanya jika token pasti belum pernah dibuat.
+     */
+    public boolean mightExist(String token) {
+        return !ready || filter.mightContain(Hashing.hash64(token)) || mayBeUnseen(token);
+    }
+
+    /**
+     * Dipanggil setelah semua link yang tersimpan sampai {@code startedAt} dimasukkan ke filter.
+     */
+    public void markRefreshed(Instant startedAt) {
+        knownUntil = startedAt.minusMillis(OVERLAP_MS);
+    }
+
+    public Instant knownUntil() {
+        return knownUntil;
+    }
+
+    private boolean mayBeUnseen(String token) {
+        Instant since = knownUntil;
+        if (since == null || !TokenGenerator.isToken(token)) return false;
+        long createdAt = TokenGenerator.epochMillis(token);
+        return createdAt >= since.toEpochMilli() && createdAt <= System.currentTimeMillis() + CLOCK_SKEW_MS;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private boolean isPersistent() {
+        return snapshotPath != null && !snapshotPath.isBlank();
+    }
+
+    private Instant loadSnapshot() {
+        if (!isPersistent()) return null;
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            Instant savedAt = Instant.ofEpochMilli(in.readLong());
+            filter = ScalableBloomFilter.readFrom(in);
+            log.info("Loaded token filter snapshot from {} ({} tokens)", savedAt, filter.count());
+            return savedAt;
+        } catch (IOException e) {
+            log.warn("Token filter snapshot {} unreadable, rebuilding from Mongo: {}", path, e.getMessage());
+            filter = null;
+            return null;
+        }
+    }
+
+    // snapshot hanya ditulis dari filter yang lengkap
+    private void saveSnapshot() {
+        if (!isPersistent() || !ready) return;
+        Path path = Path.of(snapshotPath);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            long savedAt = System.currentTimeMillis();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeLong(savedAt);
+                filter.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Token filter snapshot written to {}", path);
+        } catch (IOException e) {
+            log.error("Failed to write token filter snapshot {}", path, e);
+        }
+    }
+}
@@ -2,26 +2,127 @@ package com.yann.forcesub.service;
 
 import com.yann.forcesub.entity.User;
 import com.yann.forcesub.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
+    private final StatisticsService statisticsService;
+
+    @Value("${forcesub.user.flush.ms:1000}")
+    private long flushMs;
+
+    @Value("${forcesub.user.batch.size:500}")
+    private int batchSize;
+
+    /**
+     * Semua user id yang sudah diketahui tersimpan (atau sedang menunggu flush). User yang sudah ada
+     * di sini tidak menyentuh Mongo sama sekali.
+     */
+    private final Roaring64NavigableMap seen = new Roaring64NavigableMap();
+
+    // user baru yang belum di-upsert
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        long startedAt = System.nanoTime();
+        userRepository.findAllIds()
+                .subscribe(
+                        user -> markSeen(user.getId()),
+                        error -> log.error("Failed to load user ids", error),
+                        () -> log.info("Loaded {} user ids in {} ms", knownUsers(), (System.nanoTime() - startedAt) / 1_000_000)
+                );
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "user-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(
+                () -> flush().subscribe(),
+                flushMs,
+                flushMs,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+        }
+        flush().block(Duration.ofSeconds(5));
+    }
 
+    /**
+     * Hanya user yang belum pernah terlihat yang masuk buffer; buffer di-flush saat penuh atau berkala.
+     */
     public void saveUser(Long id) {
-        existsUserById(id)
-        .flatMap(exists -> exists ? Mono.empty() : userRepository.insert(new User(id)))
-        .subscribe();
+        if (id == null || !markSeen(id)) {
+            return;
+        }
+        pending.add(id);
+        if (pending.size() >= batchSize) {
+            flush().subscribe();
+        }
+    }
+
+    /**
+     * Upsert semua user di buffer dalam satu bulk write. Jika gagal, user dikembalikan ke buffer untuk flush berikutnya.
+     */
+    public Mono<Integer> flush() {
+        List<Long> batch = drain();
+        if (batch.isEmpty()) {
+            return Mono.just(0);
+        }
+        return userRepository.upsertAll(batch)
+                .doOnNext(inserted -> {
+                    statisticsService.usersAdded(inserted);
+                    log.debug("Flushed {} users, {} new", batch.size(), inserted);
+                })
+                .onErrorResume(error -> {
+                    log.error("Failed to flush {} users, will retry", batch.size(), error);
+                    pending.addAll(batch);
+                    return Mono.just(0);
+                });
     }
+
     public Mono<User> findById(Long id) {
         return userRepository.findById(id);
     }
     public Mono<Void> deleteById(Long id) {
-        return userRepository.deleteById(id);
+        return userRepository.removeById(id)
+                .doOnNext(deleted -> {
+                    forget(id);
+                    if (deleted > 0) {
+                        statisticsService.usersRemoved(deleted);
+                    }
+                })
+                .then();
     }
     public Mono<Long> count() {
         return userRepository.count();
@@ -30,4 +131,37 @@ public class UserService {
         return userRepository.existsUserById(id);
     }
 
+    public long knownUsers() {
+        synchronized (seen) {
+            return seen.getLongCardinality();
+        }
+    }
+
+    private boolean markSeen(long id) {
+        synchronized (seen) {
+            if (seen.contains(id)) {
+                return false;
+            }
+            seen.addLong(id);
+            return true;
+        }
+    }
+
+    // user yang dihapus harus di-upsert lagi saat muncul kembali
+    private void forget(long id) {
+        synchronized (seen) {
+            seen.removeLong(id);
+            pending.remove(id);
+        }
+    }
+
+    private List<Long> drain() {
+        List<Long> batch = new ArrayList<>(pending.size());
+        Iterator<Long> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
 }
@@ -1,6 +1,5 @@
 package com.yann.forcesub.service;
 
-import com.yann.forcesub.event.ChannelUpdateEvent;
 import com.yann.forcesub.event.UserSubscriptionEvent;
 import com.yann.forcesub.service.telegram.TelegramService;
 import jakarta.annotation.PostConstruct;
@@ -12,6 +11,7 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
@@ -21,26 +21,18 @@ import java.util.concurrent.*;
 @RequiredArgsConstructor
 public class UserSubscriptionService {
 
-    private final ChannelService channelService;
     private final TelegramService membershipChecker;
     private final ApplicationEventPublisher applicationEventPublisher;
 
     @Value("${forcesub.subscription.ttl.minutes:5}")
     private int ttlMinutes;
 
-    private final Set<Long> channelIds = ConcurrentHashMap.newKeySet();
     private final Map<Long, Map<Long, Instant>> userChannelExpiry = new ConcurrentHashMap<>();
 
     private ScheduledExecutorService scheduler;
 
     @PostConstruct
     public void init() {
-        channelService.findAll()
-                .doOnNext(channel -> channelIds.add(channel.getId()))
-                .doOnError(e -> log.error("Error loading channels: {}", e.getMessage()))
-                .doOnComplete(() -> log.info("Loaded {} channels", channelIds.size()))
-                .subscribe();
-
         scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread thread = new Thread(r, "subscription-cleanup");
             thread.setDaemon(true);
@@ -72,14 +64,6 @@ public class UserSubscriptionService {
         }
     }
 
-    public void addChannelId(Long id, boolean isAdd) {
-        if (isAdd) {
-            channelIds.add(id);
-        } else {
-            channelIds.remove(id);
-        }
-    }
-
     public CompletableFuture<Boolean> isUserSubscribedAsync(Long userId, List<Long> channelIds) {
         if (channelIds == null || channelIds.isEmpty()) {
             return CompletableFuture.completedFuture(true);
@@ -134,7 +118,11 @@ public class UserSubscriptionService {
     }
 
     public void addUserChannelId(Long userId, Long channelId) {
-        Instant expiryTime = Instant.now().plusSeconds(ttlMinutes * 60L);
+        addUserChannelId(userId, channelId, Duration.ofMinutes(ttlMinutes));
+    }
+
+    public void addUserChannelId(Long userId, Long channelId, Duration ttl) {
+        Instant expiryTime = Instant.now().plus(ttl);
 
         userChannelExpiry.computeIfAbsent(userId, k -> new ConcurrentHashMap<>())
                 .put(channelId, expiryTime);
@@ -186,12 +174,6 @@ public class UserSubscriptionService {
         }
     }
 
-    @EventListener(ChannelUpdateEvent.class)
-    public void updateChannel(ChannelUpdateEvent event) {
-        if (event.getChannelId() == null) return;
-        addChannelId(event.getChannelId(), event.isActive());
-    }
-
     @EventListener(UserSubscriptionEvent.class)
     public void updateUserSubscription(UserSubscriptionEvent event) {
         if (event.isJoined()) {
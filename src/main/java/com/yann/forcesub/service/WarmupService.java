@@ -0,0 +1,82 @@
+package com.yann.forcesub.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Satu fase warm-up saat startup: config, channel aktif, admin, token filter, dan index link dimuat paralel,
+ * lalu {@link ReadinessGate} dibuka. Cache yang gagal dimuat dicatat dan tidak menahan cache lainnya.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WarmupService {
+
+    private final ConfigService configService;
+    private final ChannelService channelService;
+    private final AdminService adminService;
+    private final TokenFilter tokenFilter;
+    private final MessageService messageService;
+    private final ReadinessGate readinessGate;
+
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private volatile long totalMillis = -1;
+
+    public record Phase(String name, long millis, String error) {
+        public boolean ok() {
+            return error == null;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        long startedAt = System.nanoTime();
+        Mono.when(
+                        timed("config", configService.load()),
+                        timed("channels", channelService.reloadActiveChannels().then()),
+                        timed("admins", adminService.load()),
+                        timed("tokens", tokenFilter.load()),
+                        timed("links", messageService.loadIndexes())
+                )
+                .doFinally(signal -> {
+                    totalMillis = (System.nanoTime() - startedAt) / 1_000_000;
+                    readinessGate.open();
+                    log.info("Warm-up finished in {} ms: {}", totalMillis, phases);
+                })
+                .subscribe();
+    }
+
+    public boolean isReady() {
+        return readinessGate.isOpen();
+    }
+
+    /**
+     * -1 selama warm-up masih berjalan.
+     */
+    public long totalMillis() {
+        return totalMillis;
+    }
+
+    public List<Phase> phases() {
+        return List.copyOf(phases);
+    }
+
+    private Mono<Void> timed(String name, Mono<Void> load) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return load
+                    .doOnSuccess(v -> phases.add(new Phase(name, (System.nanoTime() - startedAt) / 1_000_000, null)))
+                    .onErrorResume(error -> {
+                        phases.add(new Phase(name, (System.nanoTime() - startedAt) / 1_000_000, error.getClass().getSimpleName()));
+                        log.error("Warm-up of {} failed", name, error);
+                        return Mono.empty();
+                    });
+        });
+    }
+}
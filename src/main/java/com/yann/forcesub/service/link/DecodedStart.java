@@ -0,0 +1,25 @@
+package com.yann.forcesub.service.link;
+
+/**
+ * Hasil decode parameter {@code /start}.
+ */
+public sealed interface DecodedStart {
+
+    /**
+     * Token yang dicari di koleksi messages.
+     */
+    record Token(String token) implements DecodedStart {
+    }
+
+    /**
+     * Link format lama yang langsung menunjuk rentang id pesan (Bot API) di channel database.
+     */
+    record Range(long channelId, long firstId, long lastId) implements DecodedStart {
+    }
+
+    /**
+     * Argumen rusak; ditolak tanpa query ke database.
+     */
+    record Invalid(String reason) implements DecodedStart {
+    }
+}
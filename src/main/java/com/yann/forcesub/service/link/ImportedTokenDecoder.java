@@ -0,0 +1,18 @@
+package com.yann.forcesub.service.link;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kode link dari tabel bot lama yang diimpor {@code LegacyLinkImporter} dengan kode aslinya sebagai _id.
+ * Dicoba paling akhir; formatnya bebas selama masih alfabet parameter start.
+ */
+@Component
+@Order(Integer.MAX_VALUE)
+public class ImportedTokenDecoder implements StartParameterDecoder {
+
+    @Override
+    public DecodedStart decode(String argument) {
+        return new DecodedStart.Token(argument);
+    }
+}
@@ -0,0 +1,74 @@
+package com.yann.forcesub.service.link;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Link bot file-store lama: base64url dari {@code get-<id * abs(channel)>} atau
+ * {@code get-<first * abs(channel)>-<last * abs(channel)>}, tanpa padding.
+ */
+@Component
+@Order(2)
+public class LegacyBase64Decoder implements StartParameterDecoder {
+
+    private static final String PREFIX = "get-";
+
+    @Value("${default.database.id}")
+    private long defaultDatabaseId;
+
+    // setiap klik link lama dicek ulang lewat GetMessages, jadi batasnya lebih kecil dari /batch
+    @Value("${forcesub.legacy.max.range:300}")
+    private int maxRange;
+
+    @Override
+    public DecodedStart decode(String argument) {
+        // "get-" selalu ter-encode menjadi "Z2V0L"
+        if (!argument.startsWith("Z2V0L")) {
+            return null;
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(argument), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!decoded.startsWith(PREFIX)) {
+            return null;
+        }
+
+        String[] parts = decoded.substring(PREFIX.length()).split("-");
+        long divisor = Math.abs(defaultDatabaseId);
+        if (parts.length < 1 || parts.length > 2 || divisor == 0) {
+            return new DecodedStart.Invalid("legacy link has " + parts.length + " parts");
+        }
+
+        long first = messageId(parts[0], divisor);
+        long last = parts.length == 2 ? messageId(parts[1], divisor) : first;
+        if (first <= 0 || last <= 0) {
+            return new DecodedStart.Invalid("legacy link does not belong to channel " + defaultDatabaseId);
+        }
+
+        long from = Math.min(first, last);
+        long to = Math.max(first, last);
+        if (to - from + 1 > maxRange) {
+            return new DecodedStart.Invalid("legacy range too large");
+        }
+        return new DecodedStart.Range(defaultDatabaseId, from, to);
+    }
+
+    // 0 jika bukan angka atau bukan kelipatan id channel
+    private static long messageId(String encoded, long divisor) {
+        long value;
+        try {
+            value = Long.parseLong(encoded);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        return value % divisor == 0 ? value / divisor : 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.yann.forcesub.service.link;
+
+import com.yann.forcesub.util.TokenGenerator;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token base62 dari {@link TokenGenerator} dan ObjectId hex 24 karakter dari link sebelum token dibuat di JVM.
+ */
+@Component
+@Order(1)
+public class NativeTokenDecoder implements StartParameterDecoder {
+
+    private static final int OBJECT_ID_LENGTH = 24;
+
+    @Override
+    public DecodedStart decode(String argument) {
+        if (TokenGenerator.isToken(argument) || isObjectId(argument)) {
+            return new DecodedStart.Token(argument);
+        }
+        return null;
+    }
+
+    private static boolean isObjectId(String value) {
+        if (value.length() != OBJECT_ID_LENGTH) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) return false;
+        }
+        return true;
+    }
+}
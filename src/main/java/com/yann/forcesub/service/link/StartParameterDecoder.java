@@ -0,0 +1,10 @@
+package com.yann.forcesub.service.link;
+
+/**
+ * Satu format parameter {@code /start}. Mengembalikan null jika argumen bukan format ini sehingga
+ * decoder berikutnya di {@link StartParameterDecoders} yang mencoba.
+ */
+public interface StartParameterDecoder {
+
+    DecodedStart decode(String argument);
+}
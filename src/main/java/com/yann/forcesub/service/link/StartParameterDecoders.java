@@ -0,0 +1,45 @@
+package com.yann.forcesub.service.link;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rantai decoder parameter {@code /start} sesuai {@code @Order}. Argumen yang tidak dikenali satu pun
+ * decoder dianggap rusak.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartParameterDecoders {
+
+    // batas parameter start Telegram
+    static final int MAX_LENGTH = 64;
+
+    private final List<StartParameterDecoder> decoders;
+
+    public DecodedStart decode(String argument) {
+        if (argument == null || argument.isEmpty() || argument.length() > MAX_LENGTH || !isStartAlphabet(argument)) {
+            return new DecodedStart.Invalid("bad start parameter");
+        }
+        for (StartParameterDecoder decoder : decoders) {
+            DecodedStart decoded = decoder.decode(argument);
+            if (decoded != null) {
+                return decoded;
+            }
+        }
+        return new DecodedStart.Invalid("unknown format");
+    }
+
+    static boolean isStartAlphabet(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z') && !(c >= 'a' && c <= 'z') && c != '_' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
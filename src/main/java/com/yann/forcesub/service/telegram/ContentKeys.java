@@ -0,0 +1,53 @@
+package com.yann.forcesub.service.telegram;
+
+import com.yann.forcesub.util.Hashing;
+import it.tdlight.jni.TdApi;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Kunci deduplikasi konten: {@code file:<remote.uniqueId>} untuk media, {@code msg:<chatId>:<messageId>}
+ * untuk pesan tanpa file, dan {@code album:<hash>} dari gabungan kunci anggota album.
+ */
+public final class ContentKeys {
+
+    private ContentKeys() {
+    }
+
+    public static String of(List<TdApi.Message> messages) {
+        if (messages.size() == 1) {
+            return of(messages.getFirst());
+        }
+        String members = messages.stream()
+                .map(ContentKeys::of)
+                .collect(Collectors.joining(","));
+        return "album:" + Long.toHexString(Hashing.hash64(members));
+    }
+
+    public static String of(TdApi.Message message) {
+        String uniqueId = remoteUniqueId(message.content);
+        return uniqueId != null
+                ? "file:" + uniqueId
+                : "msg:" + message.chatId + ":" + message.id;
+    }
+
+    private static String remoteUniqueId(TdApi.MessageContent content) {
+        TdApi.File file = switch (content) {
+            case TdApi.MessageVideo video -> video.video.video;
+            case TdApi.MessageDocument document -> document.document.document;
+            case TdApi.MessageAnimation animation -> animation.animation.animation;
+            case TdApi.MessageAudio audio -> audio.audio.audio;
+            case TdApi.MessageVoiceNote voiceNote -> voiceNote.voiceNote.voice;
+            case TdApi.MessageVideoNote videoNote -> videoNote.videoNote.video;
+            case TdApi.MessageSticker sticker -> sticker.sticker.sticker;
+            case TdApi.MessagePhoto photo when photo.photo.sizes.length > 0 ->
+                    photo.photo.sizes[photo.photo.sizes.length - 1].photo;
+            default -> null;
+        };
+        if (file == null || file.remote == null || file.remote.uniqueId == null || file.remote.uniqueId.isEmpty()) {
+            return null;
+        }
+        return file.remote.uniqueId;
+    }
+}
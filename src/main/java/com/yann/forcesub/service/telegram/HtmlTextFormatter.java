@@ -0,0 +1,219 @@
+package com.yann.forcesub.service.telegram;
+
+import com.yann.forcesub.exceptions.NotValidFormatException;
+import it.tdlight.jni.TdApi;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parser HTML lokal untuk subset yang dipakai bot (b, i, u, s, code, pre, a, blockquote, tg-spoiler),
+ * menghasilkan {@link TdApi.FormattedText} dengan offset UTF-16 tanpa round trip {@code ParseTextEntities}.
+ * Markup di luar subset melempar {@link NotValidFormatException} agar pemanggil bisa fallback ke TDLib.
+ */
+@Component
+public class HtmlTextFormatter {
+
+    private static final int MAX_CACHE_SIZE = 512;
+
+    // LRU: template i18n yang sering dipakai tetap tinggal, teks sekali pakai tergeser
+    private final Map<String, TdApi.FormattedText> cache = new LinkedHashMap<>(MAX_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TdApi.FormattedText> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    public TdApi.FormattedText format(String html) {
+        synchronized (cache) {
+            TdApi.FormattedText cached = cache.get(html);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        TdApi.FormattedText formatted = parse(html);
+        synchronized (cache) {
+            cache.put(html, formatted);
+        }
+        return formatted;
+    }
+
+    public static TdApi.FormattedText parse(String html) {
+        StringBuilder text = new StringBuilder(html.length());
+        List<TdApi.TextEntity> entities = new ArrayList<>();
+        Deque<OpenTag> open = new ArrayDeque<>();
+
+        int i = 0;
+        int length = html.length();
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '&') {
+                i = decodeEntity(html, i, text);
+            } else if (c == '<') {
+                int end = html.indexOf('>', i + 1);
+                if (end < 0) {
+                    throw new NotValidFormatException("Unclosed tag at byte offset " + i);
+                }
+                String tag = html.substring(i + 1, end);
+                if (tag.startsWith("/")) {
+                    closeTag(tag.substring(1).trim().toLowerCase(Locale.ROOT), open, text, entities);
+                } else {
+                    open.push(openTag(tag, text.length()));
+                }
+                i = end + 1;
+            } else {
+                text.append(c);
+                i++;
+            }
+        }
+
+        if (!open.isEmpty()) {
+            throw new NotValidFormatException("Can't find end tag corresponding to start tag " + open.peek().name);
+        }
+
+        entities.sort((a, b) -> a.offset != b.offset ? Integer.compare(a.offset, b.offset) : Integer.compare(b.length, a.length));
+        return new TdApi.FormattedText(text.toString(), entities.toArray(new TdApi.TextEntity[0]));
+    }
+
+    private static OpenTag openTag(String tag, int offset) {
+        int nameEnd = 0;
+        while (nameEnd < tag.length() && !Character.isWhitespace(tag.charAt(nameEnd)) && tag.charAt(nameEnd) != '/') {
+            nameEnd++;
+        }
+        String name = tag.substring(0, nameEnd).toLowerCase(Locale.ROOT);
+        String attributes = tag.substring(nameEnd).trim();
+
+        return switch (name) {
+            case "b", "strong", "i", "em", "u", "ins", "s", "strike", "del", "code", "pre", "tg-spoiler" ->
+                    new OpenTag(name, offset, null, false);
+            case "a" -> new OpenTag(name, offset, attribute(attributes, "href"), false);
+            case "blockquote" -> new OpenTag(name, offset, null, hasFlag(attributes, "expandable"));
+            default -> throw new NotValidFormatException("Unsupported start tag \"" + name + "\"");
+        };
+    }
+
+    private static void closeTag(String name, Deque<OpenTag> open, StringBuilder text, List<TdApi.TextEntity> entities) {
+        OpenTag tag = open.poll();
+        if (tag == null || !tag.name.equals(name)) {
+            throw new NotValidFormatException("Unmatched end tag \"" + name + "\"");
+        }
+
+        int entityLength = text.length() - tag.offset;
+        if (entityLength <= 0) {
+            return;
+        }
+
+        TdApi.TextEntityType type = switch (tag.name) {
+            case "b", "strong" -> new TdApi.TextEntityTypeBold();
+            case "i", "em" -> new TdApi.TextEntityTypeItalic();
+            case "u", "ins" -> new TdApi.TextEntityTypeUnderline();
+            case "s", "strike", "del" -> new TdApi.TextEntityTypeStrikethrough();
+            case "code" -> new TdApi.TextEntityTypeCode();
+            case "pre" -> new TdApi.TextEntityTypePre();
+            case "tg-spoiler" -> new TdApi.TextEntityTypeSpoiler();
+            case "blockquote" -> tag.expandable
+                    ? new TdApi.TextEntityTypeExpandableBlockQuote()
+                    : new TdApi.TextEntityTypeBlockQuote();
+            case "a" -> textUrl(tag.url);
+            default -> null;
+        };
+        if (type != null) {
+            entities.add(new TdApi.TextEntity(tag.offset, entityLength, type));
+        }
+    }
+
+    private static TdApi.TextEntityType textUrl(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        if (url.startsWith("tg://user")) {
+            throw new NotValidFormatException("Mention links are not supported locally");
+        }
+        return new TdApi.TextEntityTypeTextUrl(url);
+    }
+
+    private static int decodeEntity(String html, int start, StringBuilder text) {
+        int end = html.indexOf(';', start + 1);
+        if (end < 0 || end - start > 10) {
+            text.append('&');
+            return start + 1;
+        }
+        String name = html.substring(start + 1, end);
+        switch (name) {
+            case "lt" -> text.append('<');
+            case "gt" -> text.append('>');
+            case "amp" -> text.append('&');
+            case "quot" -> text.append('"');
+            default -> {
+                if (name.startsWith("#")) {
+                    try {
+                        int codePoint = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X')
+                                ? Integer.parseInt(name.substring(2), 16)
+                                : Integer.parseInt(name.substring(1));
+                        text.appendCodePoint(codePoint);
+                        return end + 1;
+                    } catch (IllegalArgumentException e) {
+                        // bukan entity numerik yang valid, tulis apa adanya
+                    }
+                }
+                text.append('&');
+                return start + 1;
+            }
+        }
+        return end + 1;
+    }
+
+    private static String attribute(String attributes, String name) {
+        int index = attributes.toLowerCase(Locale.ROOT).indexOf(name + "=");
+        if (index < 0) {
+            return null;
+        }
+        int valueStart = index + name.length() + 1;
+        if (valueStart >= attributes.length()) {
+            return "";
+        }
+        char quote = attributes.charAt(valueStart);
+        String raw;
+        if (quote == '\'' || quote == '"') {
+            int valueEnd = attributes.indexOf(quote, valueStart + 1);
+            if (valueEnd < 0) {
+                throw new NotValidFormatException("Unclosed attribute value");
+            }
+            raw = attributes.substring(valueStart + 1, valueEnd);
+        } else {
+            int valueEnd = valueStart;
+            while (valueEnd < attributes.length() && !Character.isWhitespace(attributes.charAt(valueEnd))) {
+                valueEnd++;
+            }
+            raw = attributes.substring(valueStart, valueEnd);
+        }
+        StringBuilder decoded = new StringBuilder(raw.length());
+        int i = 0;
+        while (i < raw.length()) {
+            if (raw.charAt(i) == '&') {
+                i = decodeEntity(raw, i, decoded);
+            } else {
+                decoded.append(raw.charAt(i++));
+            }
+        }
+        return decoded.toString();
+    }
+
+    private static boolean hasFlag(String attributes, String flag) {
+        for (String token : attributes.split("\\s+")) {
+            if (token.equalsIgnoreCase(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record OpenTag(String name, int offset, String url, boolean expandable) {
+    }
+}
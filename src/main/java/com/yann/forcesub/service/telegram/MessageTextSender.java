@@ -1,5 +1,6 @@
 package com.yann.forcesub.service.telegram;
 
+import com.yann.forcesub.entity.StoredContent;
 import com.yann.forcesub.exceptions.NotValidFormatException;
 import it.tdlight.client.SimpleTelegramClient;
 import it.tdlight.jni.TdApi;
@@ -8,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -16,6 +18,7 @@ import java.util.concurrent.CompletableFuture;
 public class MessageTextSender {
 
     private final SimpleTelegramClient client;
+    private final HtmlTextFormatter htmlTextFormatter;
 
 
     public CompletableFuture<TdApi.FormattedText> format(String text) {
@@ -24,6 +27,14 @@ public class MessageTextSender {
 
 
     public CompletableFuture<TdApi.FormattedText> format(String text, TdApi.TextParseMode parseMode) {
+        if (parseMode instanceof TdApi.TextParseModeHTML) {
+            try {
+                return CompletableFuture.completedFuture(htmlTextFormatter.format(text));
+            } catch (NotValidFormatException e) {
+                log.debug("Local HTML parse failed, falling back to TDLib: {}", e.getMessage());
+            }
+        }
+
         CompletableFuture<TdApi.FormattedText> future = new CompletableFuture<>();
         client.send(new TdApi.ParseTextEntities(text, parseMode), result -> {
             if (result.isError()) {
@@ -76,6 +87,14 @@ public class MessageTextSender {
 
     }
 
+    public CompletableFuture<TdApi.Message> sendAndWait(String text, long chatId, TdApi.ReplyMarkup replyMarkup) {
+        return inputText(text, null)
+                .thenCompose(input -> client.sendMessage(
+                        new TdApi.SendMessage(chatId, 0, null, null, replyMarkup, input),
+                        true
+                ));
+    }
+
     public CompletableFuture<TdApi.InputMessageContent> inputText(String text, TdApi.TextParseMode parseMode) {
         CompletableFuture<TdApi.InputMessageContent> future = new CompletableFuture<>();
 
@@ -122,55 +141,81 @@ public class MessageTextSender {
                 new TdApi.AnswerCallbackQuery(inlineId, null, false, null, 0)
         );
     }
-    public CompletableFuture<TdApi.Messages> copyMessage(long fromChatId, long urlMessageId, long toChatId, boolean protectContent) {
+    public CompletableFuture<TdApi.Messages> forwardMessage(long fromChatId, long urlMessageId, long toChatId, boolean protectContent) {
         long tdLibMessageId = urlMessageId << 20;
 
         CompletableFuture<TdApi.Messages> future = new CompletableFuture<>();
+        TdApi.MessageSendOptions options = messageSendOptions(protectContent);
 
-        client.send(new TdApi.GetMessage(fromChatId, tdLibMessageId), msgResult -> {
-            if (msgResult.isError()) {
-                log.error("Message {} (TDLib ID: {}) not found in chat {}: {}",
-                        urlMessageId, tdLibMessageId, fromChatId, msgResult.getError().message);
-                future.completeExceptionally(
-                        new RuntimeException("Message not found: " + msgResult.getError().message)
-                );
-                return;
-            }
-
-            TdApi.Message originalMessage = msgResult.get();
-            log.info("Found message: TDLib ID={}, Content={}",
-                    originalMessage.id,
-                    originalMessage.content.getClass().getSimpleName());
+        client.send(
+                new TdApi.ForwardMessages(
+                        toChatId,
+                        0,
+                        fromChatId,
+                        new long[]{tdLibMessageId},
+                        options,
+                        true,
+                        false
+                ),
+                forwardResult -> {
+                    if (forwardResult.isError()) {
+                        log.error("Forward error: {}", forwardResult.getError().message);
+                        future.completeExceptionally(
+                                new RuntimeException(forwardResult.getError().message)
+                        );
+                        return;
+                    }
 
-            TdApi.MessageSendOptions options = messageSendOptions(protectContent);
+                    TdApi.Messages messages = forwardResult.get();
+                    log.info("Successfully copied {} messages", messages.totalCount);
+                    future.complete(messages);
+                }
+        );
+        return future;
+    }
+    /**
+     * Forward beberapa pesan dalam satu {@code ForwardMessages} (maks. 100 id per panggilan).
+     */
+    public CompletableFuture<TdApi.Messages> forwardMessages(long fromChatId, List<Long> urlMessageIds, long toChatId, boolean protectContent) {
+        long[] tdLibMessageIds = urlMessageIds.stream()
+                .mapToLong(id -> id << 20)
+                .toArray();
+
+        return client.send(new TdApi.ForwardMessages(
+                toChatId,
+                0,
+                fromChatId,
+                tdLibMessageIds,
+                messageSendOptions(protectContent),
+                true,
+                false
+        ));
+    }
 
-            client.send(
-                    new TdApi.ForwardMessages(
-                            toChatId,
-                            0,
-                            fromChatId,
-                            new long[]{tdLibMessageId},
-                            options,
-                            true,
-                            false
-                    ),
-                    forwardResult -> {
-                        if (forwardResult.isError()) {
-                            log.error("Forward error: {}", forwardResult.getError().message);
-                            future.completeExceptionally(
-                                    new RuntimeException(forwardResult.getError().message)
-                            );
-                            return;
-                        }
+    public CompletableFuture<TdApi.Message> sendContent(long chatId, StoredContent content, boolean protectContent) {
+        return client.send(new TdApi.SendMessage(
+                chatId,
+                0,
+                null,
+                messageSendOptions(protectContent),
+                null,
+                StoredContents.toInput(content)
+        ));
+    }
 
-                        TdApi.Messages messages = forwardResult.get();
-                        log.info("Successfully copied {} messages", messages.totalCount);
-                        future.complete(messages);
-                    }
-            );
-        });
-        return future;
+    /**
+     * Kirim 2-10 konten sebagai satu album dengan file id remote.
+     */
+    public CompletableFuture<TdApi.Messages> sendAlbum(long chatId, List<StoredContent> contents, boolean protectContent) {
+        TdApi.SendMessageAlbum request = new TdApi.SendMessageAlbum();
+        request.chatId = chatId;
+        request.options = messageSendOptions(protectContent);
+        request.inputMessageContents = contents.stream()
+                .map(StoredContents::toInput)
+                .toArray(TdApi.InputMessageContent[]::new);
+        return client.send(request);
     }
+
     public TdApi.MessageSendOptions messageSendOptions(boolean protectContent) {
         TdApi.MessageSendOptions options = new TdApi.MessageSendOptions();
         options.disableNotification = false;
@@ -0,0 +1,170 @@
+package com.yann.forcesub.service.telegram;
+
+import com.yann.forcesub.entity.StoredContent;
+import it.tdlight.jni.TdApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Konversi antara {@link TdApi.MessageContent} dan {@link StoredContent}. Tipe yang tidak didukung
+ * menghasilkan null sehingga link tersebut tetap dikirim lewat forward.
+ */
+public final class StoredContents {
+
+    public static final String TEXT = "TEXT";
+    public static final String PHOTO = "PHOTO";
+    public static final String VIDEO = "VIDEO";
+    public static final String DOCUMENT = "DOCUMENT";
+    public static final String ANIMATION = "ANIMATION";
+    public static final String AUDIO = "AUDIO";
+    public static final String VOICE = "VOICE";
+
+    private StoredContents() {
+    }
+
+    public static StoredContent capture(long messageId, long mediaAlbumId, TdApi.MessageContent content) {
+        return switch (content) {
+            case TdApi.MessageText text -> stored(messageId, mediaAlbumId, TEXT, null, text.text);
+            case TdApi.MessagePhoto photo when photo.photo.sizes.length > 0 -> stored(messageId, mediaAlbumId, PHOTO,
+                    photo.photo.sizes[photo.photo.sizes.length - 1].photo.remote.id, photo.caption);
+            case TdApi.MessageVideo video -> stored(messageId, mediaAlbumId, VIDEO, video.video.video.remote.id, video.caption);
+            case TdApi.MessageDocument document -> stored(messageId, mediaAlbumId, DOCUMENT,
+                    document.document.document.remote.id, document.caption);
+            case TdApi.MessageAnimation animation -> stored(messageId, mediaAlbumId, ANIMATION,
+                    animation.animation.animation.remote.id, animation.caption);
+            case TdApi.MessageAudio audio -> stored(messageId, mediaAlbumId, AUDIO, audio.audio.audio.remote.id, audio.caption);
+            case TdApi.MessageVoiceNote voice -> stored(messageId, mediaAlbumId, VOICE,
+                    voice.voiceNote.voice.remote.id, voice.caption);
+            default -> null;
+        };
+    }
+
+    /**
+     * Null jika ada satu saja pesan yang tidak bisa disimpan; link seperti itu dikirim lewat forward.
+     */
+    public static List<StoredContent> captureAll(List<TdApi.Message> messages, LongUnaryOperator toBotApiId) {
+        List<StoredContent> contents = new ArrayList<>(messages.size());
+        for (TdApi.Message message : messages) {
+            StoredContent content = capture(toBotApiId.applyAsLong(message.id), message.mediaAlbumId, message.content);
+            if (content == null) return null;
+            contents.add(content);
+        }
+        return contents;
+    }
+
+    public static TdApi.InputMessageContent toInput(StoredContent content) {
+        TdApi.FormattedText text = formattedText(content);
+        TdApi.InputFile file = content.getFileId() != null ? new TdApi.InputFileRemote(content.getFileId()) : null;
+
+        switch (content.getType()) {
+            case PHOTO -> {
+                TdApi.InputMessagePhoto input = new TdApi.InputMessagePhoto();
+                input.photo = file;
+                input.caption = text;
+                input.addedStickerFileIds = new int[0];
+                return input;
+            }
+            case VIDEO -> {
+                TdApi.InputMessageVideo input = new TdApi.InputMessageVideo();
+                input.video = file;
+                input.caption = text;
+                input.addedStickerFileIds = new int[0];
+                input.supportsStreaming = true;
+                return input;
+            }
+            case DOCUMENT -> {
+                TdApi.InputMessageDocument input = new TdApi.InputMessageDocument();
+                input.document = file;
+                input.caption = text;
+                return input;
+            }
+            case ANIMATION -> {
+                TdApi.InputMessageAnimation input = new TdApi.InputMessageAnimation();
+                input.animation = file;
+                input.caption = text;
+                input.addedStickerFileIds = new int[0];
+                return input;
+            }
+            case AUDIO -> {
+                TdApi.InputMessageAudio input = new TdApi.InputMessageAudio();
+                input.audio = file;
+                input.caption = text;
+                return input;
+            }
+            case VOICE -> {
+                TdApi.InputMessageVoiceNote input = new TdApi.InputMessageVoiceNote();
+                input.voiceNote = file;
+                input.caption = text;
+                input.waveform = new byte[0];
+                return input;
+            }
+            default -> {
+                TdApi.InputMessageText input = new TdApi.InputMessageText();
+                input.text = text;
+                input.linkPreviewOptions = new TdApi.LinkPreviewOptions();
+                return input;
+            }
+        }
+    }
+
+    private static StoredContent stored(long messageId, long mediaAlbumId, String type, String fileId, TdApi.FormattedText text) {
+        if (!TEXT.equals(type) && (fileId == null || fileId.isEmpty())) {
+            return null;
+        }
+        List<StoredContent.Span> spans = new ArrayList<>();
+        if (text != null) {
+            for (TdApi.TextEntity entity : text.entities) {
+                String url = entity.type instanceof TdApi.TextEntityTypeTextUrl textUrl ? textUrl.url : null;
+                String typeName = entity.type.getClass().getSimpleName().replace("TextEntityType", "");
+                spans.add(new StoredContent.Span(entity.offset, entity.length, typeName, url));
+            }
+        }
+        return StoredContent.builder()
+                .messageId(messageId)
+                .mediaAlbumId(mediaAlbumId)
+                .type(type)
+                .fileId(fileId)
+                .text(text != null ? text.text : "")
+                .entities(spans)
+                .build();
+    }
+
+    private static TdApi.FormattedText formattedText(StoredContent content) {
+        List<TdApi.TextEntity> entities = new ArrayList<>();
+        if (content.getEntities() != null) {
+            for (StoredContent.Span span : content.getEntities()) {
+                TdApi.TextEntityType type = entityType(span);
+                if (type != null) {
+                    entities.add(new TdApi.TextEntity(span.getOffset(), span.getLength(), type));
+                }
+            }
+        }
+        return new TdApi.FormattedText(content.getText() != null ? content.getText() : "",
+                entities.toArray(new TdApi.TextEntity[0]));
+    }
+
+    private static TdApi.TextEntityType entityType(StoredContent.Span span) {
+        return switch (span.getType()) {
+            case "Bold" -> new TdApi.TextEntityTypeBold();
+            case "Italic" -> new TdApi.TextEntityTypeItalic();
+            case "Underline" -> new TdApi.TextEntityTypeUnderline();
+            case "Strikethrough" -> new TdApi.TextEntityTypeStrikethrough();
+            case "Spoiler" -> new TdApi.TextEntityTypeSpoiler();
+            case "Code" -> new TdApi.TextEntityTypeCode();
+            case "Pre" -> new TdApi.TextEntityTypePre();
+            case "BlockQuote" -> new TdApi.TextEntityTypeBlockQuote();
+            case "ExpandableBlockQuote" -> new TdApi.TextEntityTypeExpandableBlockQuote();
+            case "TextUrl" -> new TdApi.TextEntityTypeTextUrl(span.getUrl());
+            case "Url" -> new TdApi.TextEntityTypeUrl();
+            case "Mention" -> new TdApi.TextEntityTypeMention();
+            case "Hashtag" -> new TdApi.TextEntityTypeHashtag();
+            case "Cashtag" -> new TdApi.TextEntityTypeCashtag();
+            case "EmailAddress" -> new TdApi.TextEntityTypeEmailAddress();
+            case "PhoneNumber" -> new TdApi.TextEntityTypePhoneNumber();
+            case "BotCommand" -> new TdApi.TextEntityTypeBotCommand();
+            default -> null;
+        };
+    }
+}
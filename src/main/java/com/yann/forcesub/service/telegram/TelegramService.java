@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -19,6 +20,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class TelegramService {
 
+    private static final int GET_MESSAGES_CHUNK = 100;
+
     private final SimpleTelegramClient client;
     private final ConfigService configService;
 
@@ -141,7 +144,48 @@ public class TelegramService {
         );
         return future;
     }
-    private boolean isActiveMember(TdApi.ChatMemberStatus member) {
+    public CompletableFuture<TdApi.ChatMembers> getSupergroupMembers(long channelId, int offset, int limit) {
+        CompletableFuture<TdApi.ChatMembers> future = new CompletableFuture<>();
+        client.send(
+                new TdApi.GetSupergroupMembers(convertToSupergroupId(channelId), new TdApi.SupergroupMembersFilterRecent(), offset, limit),
+                result -> {
+                    if (result.isError()) future.completeExceptionally(new RuntimeException(result.getError().message));
+                    else future.complete(result.get());
+                }
+        );
+        return future;
+    }
+
+    /**
+     * Ambil banyak pesan sekaligus (maks. 100 per panggilan). Pesan yang sudah dihapus bernilai null di hasil.
+     */
+    public CompletableFuture<TdApi.Messages> getMessages(long chatId, long[] tdLibMessageIds) {
+        return client.send(new TdApi.GetMessages(chatId, tdLibMessageIds));
+    }
+
+    /**
+     * Pesan yang masih ada dari daftar id Bot API, urut sesuai input. {@code GetMessages} per 100 id,
+     * satu request dalam satu waktu.
+     */
+    public CompletableFuture<List<TdApi.Message>> getExistingMessages(long chatId, List<Long> messageIds) {
+        List<TdApi.Message> found = new ArrayList<>(messageIds.size());
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (int from = 0; from < messageIds.size(); from += GET_MESSAGES_CHUNK) {
+            long[] tdLibIds = messageIds.subList(from, Math.min(from + GET_MESSAGES_CHUNK, messageIds.size()))
+                    .stream()
+                    .mapToLong(id -> id << 20)
+                    .toArray();
+            chain = chain.thenCompose(v -> getMessages(chatId, tdLibIds))
+                    .thenAccept(result -> {
+                        for (TdApi.Message message : result.messages) {
+                            if (message != null) found.add(message);
+                        }
+                    });
+        }
+        return chain.thenApply(v -> found);
+    }
+
+    public boolean isActiveMember(TdApi.ChatMemberStatus member) {
         return switch (member) {
             case TdApi.ChatMemberStatusAdministrator ignored -> true;
             case TdApi.ChatMemberStatusCreator ignored -> true;
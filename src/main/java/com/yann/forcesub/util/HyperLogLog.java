@@ -0,0 +1,98 @@
+package com.yann.forcesub.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Estimasi jumlah elemen unik dengan memori tetap {@code 2^precision} byte. Error standar
+ * {@code 1.04 / sqrt(2^precision)} (precision 14: 16 KB, ~0.8%). Input adalah hash 64-bit
+ * ({@link Hashing#mix64(long)} / {@link Hashing#hash64(CharSequence)}); dengan hash 64-bit koreksi
+ * rentang besar tidak diperlukan, hanya linear counting untuk kardinalitas kecil.
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * True jika register berubah (estimasi mungkin naik).
+     */
+    public synchronized boolean add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // rank maksimal 64 - precision + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized long count() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Gabungkan {@code other} ke sketch ini (union); precision harus sama.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision");
+        }
+        byte[] snapshot;
+        synchronized (other) {
+            snapshot = other.registers.clone();
+        }
+        synchronized (this) {
+            for (int i = 0; i < registers.length; i++) {
+                if (snapshot[i] > registers[i]) {
+                    registers[i] = snapshot[i];
+                }
+            }
+        }
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(precision);
+        out.write(registers);
+    }
+
+    public static HyperLogLog readFrom(DataInputStream in) throws IOException {
+        HyperLogLog sketch = new HyperLogLog(in.readByte());
+        in.readFully(sketch.registers);
+        return sketch;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.yann.forcesub.util;
+
+/**
+ * Set {@code long} dengan open addressing (linear probing) tanpa boxing: 8 byte per slot,
+ * load factor maksimal 0.5. Nilai 0 dipakai sebagai penanda slot kosong sehingga disimpan terpisah.
+ * Thread-safe lewat {@code synchronized}; operasi sangat singkat sehingga kontensi rendah.
+ */
+public class LongHashSet {
+
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        slots = new long[capacity];
+    }
+
+    public synchronized boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            resize();
+        }
+        int mask = slots.length - 1;
+        int index = (int) Hashing.mix64(value) & mask;
+        while (slots[index] != 0) {
+            if (slots[index] == value) return false;
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        size++;
+        return true;
+    }
+
+    public synchronized boolean contains(long value) {
+        if (value == 0) return containsZero;
+        int mask = slots.length - 1;
+        int index = (int) Hashing.mix64(value) & mask;
+        while (slots[index] != 0) {
+            if (slots[index] == value) return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long value : old) {
+            if (value == 0) continue;
+            int index = (int) Hashing.mix64(value) & mask;
+            while (slots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = value;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.yann.forcesub.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Ring buffer terbatas multi-producer single-consumer tanpa lock. Producer mengklaim slot dengan CAS dan
+ * tidak pernah menunggu: jika ring penuh {@link #offer(Object)} mengembalikan false. {@link #drain} hanya
+ * boleh dipanggil dari satu thread dalam satu waktu.
+ */
+public class MpscRing<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public MpscRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.capacity = size;
+        this.mask = size - 1;
+    }
+
+    public boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            if (position - head >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                slots.lazySet((int) (position & mask), item);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ambil maksimal {@code limit} item sesuai urutan klaim. Berhenti di slot yang sudah diklaim tapi belum
+     * terisi; item tersebut terambil pada drain berikutnya.
+     */
+    public int drain(Consumer<T> consumer, int limit) {
+        long position = head;
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) (position & mask);
+            T item = slots.get(index);
+            if (item == null) break;
+            slots.lazySet(index, null);
+            position++;
+            drained++;
+            consumer.accept(item);
+        }
+        head = position;
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,129 @@
+package com.yann.forcesub.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom filter yang tumbuh (Almeida et al.): saat slice aktif penuh, slice baru dengan kapasitas 2x dan
+ * false positive 0.5x ditambahkan sehingga total false positive tetap di bawah {@code 2 * falsePositive}.
+ * Input adalah hash 64-bit ({@link Hashing#hash64(CharSequence)}); posisi bit memakai double hashing.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final List<Slice> slices = new ArrayList<>();
+    private final int initialCapacity;
+    private final double falsePositive;
+
+    public ScalableBloomFilter(int initialCapacity, double falsePositive) {
+        this.initialCapacity = Math.max(initialCapacity, 64);
+        this.falsePositive = falsePositive;
+        slices.add(new Slice(this.initialCapacity, falsePositive * (1 - TIGHTENING)));
+    }
+
+    public synchronized void add(long hash) {
+        if (mightContain(hash)) return;
+        Slice active = slices.getLast();
+        if (active.count >= active.capacity) {
+            active = new Slice(active.capacity * GROWTH, active.falsePositive * TIGHTENING);
+            slices.add(active);
+        }
+        active.add(hash);
+    }
+
+    public synchronized boolean mightContain(long hash) {
+        for (int i = slices.size() - 1; i >= 0; i--) {
+            if (slices.get(i).mightContain(hash)) return true;
+        }
+        return false;
+    }
+
+    public synchronized long count() {
+        long count = 0;
+        for (Slice slice : slices) {
+            count += slice.count;
+        }
+        return count;
+    }
+
+    public synchronized long sizeInBytes() {
+        long bytes = 0;
+        for (Slice slice : slices) {
+            bytes += slice.bits.length * 8L;
+        }
+        return bytes;
+    }
+
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(initialCapacity);
+        out.writeDouble(falsePositive);
+        out.writeInt(slices.size());
+        for (Slice slice : slices) {
+            out.writeInt(slice.capacity);
+            out.writeDouble(slice.falsePositive);
+            out.writeInt(slice.count);
+            for (long word : slice.bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    public static ScalableBloomFilter readFrom(DataInputStream in) throws IOException {
+        ScalableBloomFilter filter = new ScalableBloomFilter(in.readInt(), in.readDouble());
+        filter.slices.clear();
+        int sliceCount = in.readInt();
+        for (int i = 0; i < sliceCount; i++) {
+            Slice slice = new Slice(in.readInt(), in.readDouble());
+            slice.count = in.readInt();
+            for (int w = 0; w < slice.bits.length; w++) {
+                slice.bits[w] = in.readLong();
+            }
+            filter.slices.add(slice);
+        }
+        return filter;
+    }
+
+    private static final class Slice {
+        private final int capacity;
+        private final double falsePositive;
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashes;
+        private int count;
+
+        private Slice(int capacity, double falsePositive) {
+            this.capacity = capacity;
+            this.falsePositive = falsePositive;
+            // m = -n ln(p) / (ln 2)^2, k = m/n ln 2
+            long m = (long) Math.ceil(-capacity * Math.log(falsePositive) / (Math.log(2) * Math.log(2)));
+            this.bits = new long[(int) Math.max(1, (m + 63) >>> 6)];
+            this.bitCount = bits.length * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        private void add(long hash) {
+            long h1 = hash;
+            long h2 = Hashing.mix64(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            count++;
+        }
+
+        private boolean mightContain(long hash) {
+            long h1 = hash;
+            long h2 = Hashing.mix64(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.yann.forcesub.util;
+
+import java.security.SecureRandom;
+
+/**
+ * Token link base62 yang terurut waktu: 9 karakter timestamp milidetik (48 bit) diikuti
+ * 11 karakter acak (64 bit). Alfabet diurutkan sesuai ASCII sehingga urutan string = urutan waktu.
+ */
+public final class TokenGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final int TIME_LENGTH = 9;
+    private static final int RANDOM_LENGTH = 11;
+    public static final int TOKEN_LENGTH = TIME_LENGTH + RANDOM_LENGTH;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TokenGenerator() {
+    }
+
+    public static String next() {
+        return next(System.currentTimeMillis());
+    }
+
+    static String next(long epochMillis) {
+        char[] token = new char[TOKEN_LENGTH];
+        encode(epochMillis & 0xFFFF_FFFF_FFFFL, token, 0, TIME_LENGTH);
+        encodeUnsigned(RANDOM.nextLong(), token, TIME_LENGTH, RANDOM_LENGTH);
+        return new String(token);
+    }
+
+    /**
+     * Waktu pembuatan yang tersimpan di 9 karakter pertama token; hanya valid jika {@link #isToken} true.
+     */
+    public static long epochMillis(String token) {
+        long value = 0;
+        for (int i = 0; i < TIME_LENGTH; i++) {
+            value = value * ALPHABET.length + indexOf(token.charAt(i));
+        }
+        return value;
+    }
+
+    public static boolean isToken(String value) {
+        if (value == null || value.length() != TOKEN_LENGTH) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z') && !(c >= 'a' && c <= 'z')) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(char c) {
+        if (c <= '9') return c - '0';
+        if (c <= 'Z') return c - 'A' + 10;
+        return c - 'a' + 36;
+    }
+
+    private static void encode(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = ALPHABET[(int) (value % ALPHABET.length)];
+            value /= ALPHABET.length;
+        }
+    }
+
+    private static void encodeUnsigned(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = ALPHABET[(int) Long.remainderUnsigned(value, ALPHABET.length)];
+            value = Long.divideUnsigned(value, ALPHABET.length);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.yann.forcesub.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * K kunci dengan skor tertinggi. Skor yang diberikan adalah nilai absolut (bukan delta), sehingga
+ * hasilnya tepat untuk setiap kunci yang pernah dilaporkan. Update O(log K), baca O(K).
+ */
+public class TopK {
+
+    public record Entry(String key, long score) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::score)
+            .thenComparing(Entry::key);
+
+    private final int capacity;
+    private final TreeSet<Entry> ranked = new TreeSet<>(ORDER);
+    private final Map<String, Entry> byKey = new HashMap<>();
+
+    public TopK(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * True jika isi leaderboard berubah.
+     */
+    public synchronized boolean offer(String key, long score) {
+        Entry current = byKey.get(key);
+        if (current != null) {
+            if (current.score() == score) return false;
+            ranked.remove(current);
+            put(new Entry(key, score));
+            return true;
+        }
+        if (ranked.size() < capacity) {
+            put(new Entry(key, score));
+            return true;
+        }
+        Entry lowest = ranked.first();
+        if (ORDER.compare(new Entry(key, score), lowest) <= 0) {
+            return false;
+        }
+        ranked.pollFirst();
+        byKey.remove(lowest.key());
+        put(new Entry(key, score));
+        return true;
+    }
+
+    public synchronized void remove(String key) {
+        Entry current = byKey.remove(key);
+        if (current != null) {
+            ranked.remove(current);
+        }
+    }
+
+    /**
+     * Urut dari skor tertinggi.
+     */
+    public synchronized List<Entry> snapshot() {
+        return new ArrayList<>(ranked.descendingSet());
+    }
+
+    private void put(Entry entry) {
+        ranked.add(entry);
+        byKey.put(entry.key(), entry);
+    }
+}
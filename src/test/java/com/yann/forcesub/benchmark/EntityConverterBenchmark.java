@@ -0,0 +1,122 @@
+package com.yann.forcesub.benchmark;
+
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import com.yann.forcesub.repository.convert.EntityConverters;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membandingkan {@link MappingMongoConverter} reflektif dengan {@link EntityConverters} untuk dokumen messages
+ * (album dengan salinan konten dan entity caption). Keduanya lewat {@code MappingMongoConverter} seperti di
+ * template, yang kedua dengan custom conversions terdaftar. Alokasi per dokumen dari profiler gc
+ * ({@code gc.alloc.rate.norm}). Jalankan dari IDE lewat {@link #main(String[])} setelah {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseG1GC")
+public class EntityConverterBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int messageCount;
+
+    private MappingMongoConverter reflective;
+    private MappingMongoConverter custom;
+    private Message message;
+    private Document document;
+
+    @Setup
+    public void setup() {
+        reflective = converter(new MongoCustomConversions(List.of()));
+        custom = converter(new MongoCustomConversions(EntityConverters.converters()));
+
+        List<Long> messageIds = new ArrayList<>(messageCount);
+        List<StoredContent> contents = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            long messageId = (4_000_000L + i) << 20;
+            messageIds.add(messageId);
+            contents.add(StoredContent.builder()
+                    .messageId(messageId)
+                    .mediaAlbumId(messageCount > 1 ? 13_955_123_456_789L : 0)
+                    .type("photo")
+                    .fileId("AgACAgUAAxkBAAIC" + i + "ZmVhc3R5X2ZpbGVfaWRfZm9yX2JlbmNobWFyaw")
+                    .text(i == 0 ? "Episode baru sudah rilis! Tonton sekarang di channel kami." : null)
+                    .entities(i == 0 ? List.of(
+                            new StoredContent.Span(0, 13, "bold", null),
+                            new StoredContent.Span(37, 7, "textUrl", "https://t.me/example")) : null)
+                    .build());
+        }
+        message = Message.builder()
+                .id("4fJx9QaZ")
+                .channelId(-1001234567890L)
+                .messageIds(messageIds)
+                .contents(contents)
+                .contentRestricted(true)
+                .viewCount(1523)
+                .contentKey("AgADdQ0AAm" + messageCount)
+                .validated(true)
+                .createdAt(Instant.parse("2025-01-15T10:15:30Z"))
+                .build();
+
+        document = new Document();
+        reflective.write(message, document);
+    }
+
+    @Benchmark
+    public Message readReflective() {
+        return reflective.read(Message.class, document);
+    }
+
+    @Benchmark
+    public Message readCustom() {
+        return custom.read(Message.class, document);
+    }
+
+    @Benchmark
+    public Document writeReflective() {
+        Document target = new Document();
+        reflective.write(message, target);
+        return target;
+    }
+
+    @Benchmark
+    public Document writeCustom() {
+        Document target = new Document();
+        custom.write(message, target);
+        return target;
+    }
+
+    private static MappingMongoConverter converter(MongoCustomConversions conversions) {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EntityConverterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.yann.forcesub.benchmark;
+
+import com.yann.forcesub.service.ReplyBuilder;
+import it.tdlight.jni.TdApi;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membandingkan {@link ReplyBuilder.InlineKeyboardBuilder} dengan {@link ReplyBuilder.KeyboardTemplate}
+ * untuk keyboard force-sub. Jalankan dari IDE lewat {@link #main(String[])} setelah {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseG1GC")
+public class ReplyMarkupBenchmark {
+
+    @Param({"1", "3", "6"})
+    private int channelCount;
+
+    private String[] placeholders;
+    private String[] links;
+    private ReplyBuilder.KeyboardTemplate subscriptionTemplate;
+    private ReplyBuilder.KeyboardTemplate featureTemplate;
+
+    @Setup
+    public void setup() {
+        placeholders = new String[channelCount];
+        links = new String[channelCount];
+        ReplyBuilder.InlineKeyboardBuilder builder = ReplyBuilder.inline();
+        for (int i = 0; i < channelCount; i++) {
+            placeholders[i] = "Join Now " + i;
+            links[i] = "https://t.me/+invite" + i;
+            builder.addUrl(placeholders[i], links[i]);
+        }
+        builder.row(2);
+        builder.addUrlSlot("Coba Lagi");
+        subscriptionTemplate = builder.buildTemplate();
+        featureTemplate = featureBuilder().buildTemplate();
+    }
+
+    @Benchmark
+    public TdApi.ReplyMarkup subscriptionBuilder() {
+        ReplyBuilder.InlineKeyboardBuilder builder = ReplyBuilder.inline();
+        for (int i = 0; i < channelCount; i++) {
+            builder.addUrl(placeholders[i], links[i]);
+        }
+        builder.row(2);
+        builder.addUrl("Coba Lagi", "https://t.me/bot?start=65f1c0ffee0123456789abcd");
+        return builder.build();
+    }
+
+    @Benchmark
+    public TdApi.ReplyMarkup subscriptionTemplate() {
+        return subscriptionTemplate.render("https://t.me/bot?start=65f1c0ffee0123456789abcd");
+    }
+
+    @Benchmark
+    public TdApi.ReplyMarkup featureBuilderAdmin() {
+        return featureBuilder().build();
+    }
+
+    @Benchmark
+    public TdApi.ReplyMarkup featureTemplateAdmin() {
+        return featureTemplate.render();
+    }
+
+    private static ReplyBuilder.InlineKeyboardBuilder featureBuilder() {
+        return ReplyBuilder.inline()
+                .row(2)
+                .addCallback("Help", "help")
+                .addCallback("Ping", "ping")
+                .addCallback("About", "about")
+                .addUrl("Dev", "https://t.me/b_yannnn")
+                .addCallback("Cek Vars", "vars")
+                .addCallback("Force Sub", "channel")
+                .addCallback("Admins", "admins");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ReplyMarkupBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
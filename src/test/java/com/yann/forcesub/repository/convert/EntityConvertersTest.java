@@ -0,0 +1,133 @@
+package com.yann.forcesub.repository.convert;
+
+import com.yann.forcesub.entity.Channel;
+import com.yann.forcesub.entity.Message;
+import com.yann.forcesub.entity.StoredContent;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Entity Converters Test")
+class EntityConvertersTest {
+
+    private MappingMongoConverter reflective;
+
+    private Message message;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        reflective = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        reflective.setCustomConversions(conversions);
+        reflective.afterPropertiesSet();
+
+        message = Message.builder()
+                .id("4fJx9QaZ")
+                .channelId(-1001234567890L)
+                .messageIds(List.of(1L << 20, 2L << 20))
+                .contents(List.of(StoredContent.builder()
+                        .messageId(1L << 20)
+                        .mediaAlbumId(42L)
+                        .type("photo")
+                        .fileId("AgACAgUAAxkB")
+                        .text("Episode baru")
+                        .entities(List.of(new StoredContent.Span(0, 7, "textUrl", "https://t.me/example")))
+                        .build()))
+                .viewCount(7)
+                .contentKey("AgADdQ0AAm")
+                .validated(true)
+                .expiresAt(Instant.parse("2025-02-01T00:00:00Z"))
+                .maxUses(100)
+                .createdAt(Instant.parse("2025-01-15T10:15:30Z"))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Message")
+    class MessageTests {
+
+        @Test
+        @DisplayName("Should write the same document as reflective mapping")
+        void shouldWriteSameDocumentAsReflectiveMapping() {
+            Document expected = new Document();
+            reflective.write(message, expected);
+            expected.remove("_class");
+
+            assertEquals(expected, EntityConverters.MessageWriter.INSTANCE.convert(message));
+        }
+
+        @Test
+        @DisplayName("Should read a document written by reflective mapping")
+        void shouldReadReflectiveDocument() {
+            Document document = new Document();
+            reflective.write(message, document);
+
+            Message read = EntityConverters.MessageReader.INSTANCE.convert(document);
+
+            assertEquals(message.getId(), read.getId());
+            assertEquals(message.getChannelId(), read.getChannelId());
+            assertEquals(message.getMessageIds(), read.getMessageIds());
+            assertEquals(message.getViewCount(), read.getViewCount());
+            assertEquals(message.getExpiresAt(), read.getExpiresAt());
+            assertEquals(message.getMaxUses(), read.getMaxUses());
+            assertEquals(message.getCreatedAt(), read.getCreatedAt());
+            assertTrue(read.isValidated());
+            assertEquals("https://t.me/example", read.getContents().getFirst().getEntities().getFirst().getUrl());
+            assertEquals(42L, read.getContents().getFirst().getMediaAlbumId());
+        }
+
+        @Test
+        @DisplayName("Should keep builder defaults for projected documents")
+        void shouldKeepDefaultsForProjection() {
+            Message read = EntityConverters.MessageReader.INSTANCE.convert(new Document("_id", "abc").append("viewCount", 3));
+
+            assertEquals(3, read.getViewCount());
+            assertTrue(read.isContentRestricted());
+            assertNull(read.getMessageIds());
+        }
+
+        @Test
+        @DisplayName("Should store legacy ObjectId tokens as ObjectId")
+        void shouldStoreLegacyTokensAsObjectId() {
+            String legacy = new ObjectId().toHexString();
+            message.setId(legacy);
+
+            Document document = EntityConverters.MessageWriter.INSTANCE.convert(message);
+
+            assertInstanceOf(ObjectId.class, document.get("_id"));
+            assertEquals(legacy, EntityConverters.MessageReader.INSTANCE.convert(document).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should round trip channel")
+    void shouldRoundTripChannel() {
+        Channel channel = new Channel(-100123L, "https://t.me/+abc", "Join", true, "Channel");
+
+        Document expected = new Document();
+        reflective.write(channel, expected);
+        expected.remove("_class");
+        Document written = EntityConverters.ChannelWriter.INSTANCE.convert(channel);
+        Channel read = EntityConverters.ChannelReader.INSTANCE.convert(written);
+
+        assertEquals(expected, written);
+        assertEquals(channel.getId(), read.getId());
+        assertTrue(read.isActive());
+        assertEquals("Join", read.getPlaceholder());
+    }
+}
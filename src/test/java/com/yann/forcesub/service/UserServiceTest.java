@@ -11,13 +11,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
+import java.util.Collection;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -28,6 +32,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private StatisticsService statisticsService;
+
     @InjectMocks
     private UserService userService;
 
@@ -38,6 +45,7 @@ class UserServiceTest {
     @BeforeEach
     void setUp() {
         testUser = new User(TEST_USER_ID);
+        ReflectionTestUtils.setField(userService, "batchSize", 100);
     }
 
     @Nested
@@ -45,138 +53,145 @@ class UserServiceTest {
     class SaveUserTests {
 
         @Test
-        @DisplayName("Berhasil - Menyimpan user baru (user belum ada)")
-        void saveUser_Success_WhenUserDoesNotExist() throws InterruptedException {
+        @DisplayName("Berhasil - User baru di-upsert saat flush")
+        void saveUser_Success_WhenUserIsNew() {
             // Arrange
-            when(userRepository.existsUserById(TEST_USER_ID)).thenReturn(Mono.just(false));
-            when(userRepository.insert(any(User.class))).thenReturn(Mono.just(testUser));
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(1));
 
             // Act
             userService.saveUser(TEST_USER_ID);
 
-            // Assert - Tunggu async operation selesai
-            Thread.sleep(100);
-
-            ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-            verify(userRepository, times(1)).existsUserById(TEST_USER_ID);
-            verify(userRepository, times(1)).insert(userCaptor.capture());
+            // Assert
+            StepVerifier.create(userService.flush())
+                    .expectNext(1)
+                    .verifyComplete();
 
-            User capturedUser = userCaptor.getValue();
-            assertThat(capturedUser).isNotNull();
-            assertThat(capturedUser.getId()).isEqualTo(TEST_USER_ID);
+            ArgumentCaptor<Collection<Long>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+            verify(userRepository, times(1)).upsertAll(idsCaptor.capture());
+            assertThat(idsCaptor.getValue()).containsExactly(TEST_USER_ID);
+            verify(userRepository, never()).existsUserById(anyLong());
+            verify(userRepository, never()).insert(any(User.class));
+            verify(statisticsService).usersAdded(1);
         }
 
         @Test
-        @DisplayName("Berhasil - Tidak menyimpan user yang sudah ada")
-        void saveUser_Success_WhenUserAlreadyExists() throws InterruptedException {
+        @DisplayName("Berhasil - User yang sudah terlihat tidak menyentuh database")
+        void saveUser_Success_WhenUserAlreadySeen() {
             // Arrange
-            when(userRepository.existsUserById(TEST_USER_ID)).thenReturn(Mono.just(true));
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(1));
+            userService.saveUser(TEST_USER_ID);
+            userService.flush().block();
 
             // Act
             userService.saveUser(TEST_USER_ID);
 
-            // Assert - Tunggu async operation selesai
-            Thread.sleep(100);
+            // Assert
+            StepVerifier.create(userService.flush())
+                    .expectNext(0)
+                    .verifyComplete();
 
-            verify(userRepository, times(1)).existsUserById(TEST_USER_ID);
-            verify(userRepository, never()).insert(any(User.class));
+            verify(userRepository, times(1)).upsertAll(anyCollection());
+            assertThat(userService.knownUsers()).isEqualTo(1);
         }
 
         @Test
-        @DisplayName("Gagal - Error saat mengecek existensi user")
-        void saveUser_Fail_WhenExistsCheckThrowsError() throws InterruptedException {
+        @DisplayName("Berhasil - Banyak user digabung dalam satu bulk upsert")
+        void saveUser_Success_BatchesMultipleUsers() {
             // Arrange
-            when(userRepository.existsUserById(TEST_USER_ID))
-                    .thenReturn(Mono.error(new RuntimeException("Database connection error")));
+            when(userRepository.upsertAll(anyCollection()))
+                    .thenAnswer(invocation -> Mono.just(invocation.<Collection<Long>>getArgument(0).size()));
 
             // Act
-            userService.saveUser(TEST_USER_ID);
+            userService.saveUser(111L);
+            userService.saveUser(222L);
+            userService.saveUser(333L);
 
-            // Assert - Tunggu async operation selesai
-            Thread.sleep(100);
+            // Assert
+            StepVerifier.create(userService.flush())
+                    .expectNext(3)
+                    .verifyComplete();
 
-            verify(userRepository, times(1)).existsUserById(TEST_USER_ID);
-            verify(userRepository, never()).insert(any(User.class));
+            ArgumentCaptor<Collection<Long>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+            verify(userRepository, times(1)).upsertAll(idsCaptor.capture());
+            assertThat(idsCaptor.getValue()).containsExactlyInAnyOrder(111L, 222L, 333L);
         }
 
         @Test
-        @DisplayName("Gagal - Error saat menyimpan user")
-        void saveUser_Fail_WhenInsertThrowsError() throws InterruptedException {
+        @DisplayName("Berhasil - Buffer penuh langsung di-flush")
+        void saveUser_Success_FlushesWhenBufferFull() {
             // Arrange
-            when(userRepository.existsUserById(TEST_USER_ID)).thenReturn(Mono.just(false));
-            when(userRepository.insert(any(User.class)))
-                    .thenReturn(Mono.error(new RuntimeException("Insert failed")));
+            ReflectionTestUtils.setField(userService, "batchSize", 2);
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(2));
 
             // Act
-            userService.saveUser(TEST_USER_ID);
-
-            // Assert - Tunggu async operation selesai
-            Thread.sleep(100);
+            userService.saveUser(111L);
+            userService.saveUser(222L);
 
-            verify(userRepository, times(1)).existsUserById(TEST_USER_ID);
-            verify(userRepository, times(1)).insert(any(User.class));
+            // Assert
+            verify(userRepository, times(1)).upsertAll(anyCollection());
+            StepVerifier.create(userService.flush())
+                    .expectNext(0)
+                    .verifyComplete();
         }
 
         @Test
-        @DisplayName("Berhasil - Menyimpan multiple users secara berurutan")
-        void saveUser_Success_SaveMultipleUsers() throws InterruptedException {
+        @DisplayName("Gagal - Error saat upsert, user dikembalikan ke buffer")
+        void saveUser_Fail_WhenUpsertThrowsError() {
             // Arrange
-            Long userId1 = 111L;
-            Long userId2 = 222L;
-            Long userId3 = 333L;
-
-            when(userRepository.existsUserById(anyLong())).thenReturn(Mono.just(false));
-            when(userRepository.insert(any(User.class)))
-                    .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+            when(userRepository.upsertAll(anyCollection()))
+                    .thenReturn(Mono.error(new RuntimeException("Bulk write failed")))
+                    .thenReturn(Mono.just(1));
 
             // Act
-            userService.saveUser(userId1);
-            userService.saveUser(userId2);
-            userService.saveUser(userId3);
+            userService.saveUser(TEST_USER_ID);
 
-            // Assert - Tunggu async operation selesai
-            Thread.sleep(200);
+            // Assert
+            StepVerifier.create(userService.flush())
+                    .expectNext(0)
+                    .verifyComplete();
+            StepVerifier.create(userService.flush())
+                    .expectNext(1)
+                    .verifyComplete();
 
-            verify(userRepository, times(3)).existsUserById(anyLong());
-            verify(userRepository, times(3)).insert(any(User.class));
+            verify(userRepository, times(2)).upsertAll(anyCollection());
         }
 
         @Test
         @DisplayName("Berhasil - Tidak error dengan userId null")
-        void saveUser_HandlesNull_WhenUserIdIsNull() throws InterruptedException {
-            // Arrange
-            when(userRepository.existsUserById(null))
-                    .thenReturn(Mono.error(new IllegalArgumentException("UserId cannot be null")));
-
+        void saveUser_HandlesNull_WhenUserIdIsNull() {
             // Act
             userService.saveUser(null);
 
-            // Assert - Tunggu async operation selesai
-            Thread.sleep(100);
+            // Assert
+            StepVerifier.create(userService.flush())
+                    .expectNext(0)
+                    .verifyComplete();
 
-            verify(userRepository, times(1)).existsUserById(null);
-            verify(userRepository, never()).insert(any(User.class));
+            verifyNoInteractions(userRepository);
         }
 
         @Test
         @DisplayName("Berhasil - Concurrent saves dengan user ID yang sama")
         void saveUser_Success_ConcurrentSavesWithSameId() throws InterruptedException {
             // Arrange
-            when(userRepository.existsUserById(TEST_USER_ID))
-                    .thenReturn(Mono.just(false))
-                    .thenReturn(Mono.just(true));
-            when(userRepository.insert(any(User.class))).thenReturn(Mono.just(testUser));
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(1));
 
             // Act - Simulate concurrent saves
-            userService.saveUser(TEST_USER_ID);
-            userService.saveUser(TEST_USER_ID);
+            Thread first = new Thread(() -> userService.saveUser(TEST_USER_ID));
+            Thread second = new Thread(() -> userService.saveUser(TEST_USER_ID));
+            first.start();
+            second.start();
+            first.join();
+            second.join();
 
             // Assert
-            Thread.sleep(200);
+            StepVerifier.create(userService.flush())
+                    .expectNext(1)
+                    .verifyComplete();
 
-            // First call should save, second call should not
-            verify(userRepository, times(2)).existsUserById(TEST_USER_ID);
-            verify(userRepository, times(1)).insert(any(User.class));
+            ArgumentCaptor<Collection<Long>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+            verify(userRepository, times(1)).upsertAll(idsCaptor.capture());
+            assertThat(idsCaptor.getValue()).containsExactly(TEST_USER_ID);
         }
     }
 
@@ -287,26 +302,49 @@ class UserServiceTest {
         @DisplayName("Berhasil - Menghapus user berdasarkan id")
         void deleteById_Success_WhenUserExists() {
             // Arrange
-            when(userRepository.deleteById(TEST_USER_ID)).thenReturn(Mono.empty());
+            when(userRepository.removeById(TEST_USER_ID)).thenReturn(Mono.just(1L));
 
             // Act & Assert
             StepVerifier.create(userService.deleteById(TEST_USER_ID))
                     .verifyComplete();
 
-            verify(userRepository, times(1)).deleteById(TEST_USER_ID);
+            verify(userRepository, times(1)).removeById(TEST_USER_ID);
+            verify(statisticsService).usersRemoved(1);
+        }
+
+        @Test
+        @DisplayName("Berhasil - User yang dihapus di-upsert lagi saat muncul kembali")
+        void deleteById_Success_UserSavedAgainAfterDelete() {
+            // Arrange
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(1));
+            when(userRepository.removeById(TEST_USER_ID)).thenReturn(Mono.just(1L));
+            userService.saveUser(TEST_USER_ID);
+            userService.flush().block();
+
+            // Act
+            StepVerifier.create(userService.deleteById(TEST_USER_ID))
+                    .verifyComplete();
+            userService.saveUser(TEST_USER_ID);
+
+            // Assert
+            StepVerifier.create(userService.flush())
+                    .expectNext(1)
+                    .verifyComplete();
+            verify(userRepository, times(2)).upsertAll(anyCollection());
         }
 
         @Test
         @DisplayName("Berhasil - Menghapus user yang tidak ada")
         void deleteById_Success_WhenUserNotFound() {
             // Arrange
-            when(userRepository.deleteById(NON_EXISTENT_USER_ID)).thenReturn(Mono.empty());
+            when(userRepository.removeById(NON_EXISTENT_USER_ID)).thenReturn(Mono.just(0L));
 
             // Act & Assert
             StepVerifier.create(userService.deleteById(NON_EXISTENT_USER_ID))
                     .verifyComplete();
 
-            verify(userRepository, times(1)).deleteById(NON_EXISTENT_USER_ID);
+            verify(userRepository, times(1)).removeById(NON_EXISTENT_USER_ID);
+            verify(statisticsService, never()).usersRemoved(anyLong());
         }
 
         @Test
@@ -314,7 +352,7 @@ class UserServiceTest {
         void deleteById_Fail_WhenRepositoryThrowsError() {
             // Arrange
             RuntimeException expectedException = new RuntimeException("Delete operation failed");
-            when(userRepository.deleteById(anyLong())).thenReturn(Mono.error(expectedException));
+            when(userRepository.removeById(anyLong())).thenReturn(Mono.error(expectedException));
 
             // Act & Assert
             StepVerifier.create(userService.deleteById(TEST_USER_ID))
@@ -323,14 +361,14 @@ class UserServiceTest {
                                     throwable.getMessage().equals("Delete operation failed"))
                     .verify();
 
-            verify(userRepository, times(1)).deleteById(TEST_USER_ID);
+            verify(userRepository, times(1)).removeById(TEST_USER_ID);
         }
 
         @Test
         @DisplayName("Gagal - userId null")
         void deleteById_Fail_WhenUserIdIsNull() {
             // Arrange
-            when(userRepository.deleteById((Long) null))
+            when(userRepository.removeById(null))
                     .thenReturn(Mono.error(new IllegalArgumentException("UserId cannot be null")));
 
             // Act & Assert
@@ -344,7 +382,7 @@ class UserServiceTest {
         void deleteById_Success_AfterFind() {
             // Arrange
             when(userRepository.findById(TEST_USER_ID)).thenReturn(Mono.just(testUser));
-            when(userRepository.deleteById(TEST_USER_ID)).thenReturn(Mono.empty());
+            when(userRepository.removeById(TEST_USER_ID)).thenReturn(Mono.just(1L));
 
             // Act & Assert - Find first
             StepVerifier.create(userService.findById(TEST_USER_ID))
@@ -356,14 +394,14 @@ class UserServiceTest {
                     .verifyComplete();
 
             verify(userRepository, times(1)).findById(TEST_USER_ID);
-            verify(userRepository, times(1)).deleteById(TEST_USER_ID);
+            verify(userRepository, times(1)).removeById(TEST_USER_ID);
         }
 
         @Test
         @DisplayName("Berhasil - Multiple delete calls (idempotent)")
         void deleteById_Success_MultipleDeleteCalls() {
             // Arrange
-            when(userRepository.deleteById(TEST_USER_ID)).thenReturn(Mono.empty());
+            when(userRepository.removeById(TEST_USER_ID)).thenReturn(Mono.just(1L), Mono.just(0L));
 
             // Act & Assert - First delete
             StepVerifier.create(userService.deleteById(TEST_USER_ID))
@@ -373,7 +411,8 @@ class UserServiceTest {
             StepVerifier.create(userService.deleteById(TEST_USER_ID))
                     .verifyComplete();
 
-            verify(userRepository, times(2)).deleteById(TEST_USER_ID);
+            verify(userRepository, times(2)).removeById(TEST_USER_ID);
+            verify(statisticsService, times(1)).usersRemoved(1);
         }
     }
 
@@ -458,18 +497,16 @@ class UserServiceTest {
 
         @Test
         @DisplayName("Berhasil - Count after multiple saves")
-        void count_Success_AfterMultipleSaves() throws InterruptedException {
+        void count_Success_AfterMultipleSaves() {
             // Arrange
-            when(userRepository.existsUserById(anyLong())).thenReturn(Mono.just(false));
-            when(userRepository.insert(any(User.class)))
-                    .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(3));
             when(userRepository.count()).thenReturn(Mono.just(3L));
 
             // Act - Save 3 users
             userService.saveUser(111L);
             userService.saveUser(222L);
             userService.saveUser(333L);
-            Thread.sleep(200);
+            userService.flush().block();
 
             // Act & Assert - Count
             StepVerifier.create(userService.count())
@@ -568,11 +605,12 @@ class UserServiceTest {
 
         @Test
         @DisplayName("Berhasil - Check exists before and after save")
-        void existsUserById_Success_BeforeAndAfterSave() throws InterruptedException {
+        void existsUserById_Success_BeforeAndAfterSave() {
             // Arrange
             when(userRepository.existsUserById(TEST_USER_ID))
                     .thenReturn(Mono.just(false))
                     .thenReturn(Mono.just(true));
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(1));
 
             StepVerifier.create(userService.existsUserById(TEST_USER_ID))
                     .expectNext(false)
@@ -580,14 +618,15 @@ class UserServiceTest {
 
             // Act - Save user
             userService.saveUser(TEST_USER_ID);
-            Thread.sleep(100);
+            userService.flush().block();
 
             // Act & Assert - Check after save
             StepVerifier.create(userService.existsUserById(TEST_USER_ID))
                     .expectNext(true)
                     .verifyComplete();
 
-            verify(userRepository, times(3)).existsUserById(TEST_USER_ID);
+            verify(userRepository, times(2)).existsUserById(TEST_USER_ID);
+            verify(userRepository, times(1)).upsertAll(anyCollection());
         }
     }
 
@@ -597,19 +636,21 @@ class UserServiceTest {
 
         @Test
         @DisplayName("Skenario lengkap - Save, Find, Exists, Count, Delete")
-        void fullScenario_SaveFindExistsCountDelete() throws InterruptedException {
+        void fullScenario_SaveFindExistsCountDelete() {
             // 1. Check user doesn't exist (pertama kali)
             when(userRepository.existsUserById(TEST_USER_ID)).thenReturn(Mono.just(false));
             StepVerifier.create(userService.existsUserById(TEST_USER_ID))
                     .expectNext(false)
                     .verifyComplete();
 
-            // 2. Save user (ini akan memanggil existsUserById lagi secara internal)
-            when(userRepository.insert(any(User.class))).thenReturn(Mono.just(testUser));
+            // 2. Save user (tidak memanggil existsUserById, langsung bulk upsert saat flush)
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(1));
             userService.saveUser(TEST_USER_ID);
-            Thread.sleep(100);
+            StepVerifier.create(userService.flush())
+                    .expectNext(1)
+                    .verifyComplete();
 
-            // 3. Check user now exists (ketiga kali)
+            // 3. Check user now exists
             when(userRepository.existsUserById(TEST_USER_ID)).thenReturn(Mono.just(true));
             StepVerifier.create(userService.existsUserById(TEST_USER_ID))
                     .expectNext(true)
@@ -628,63 +669,61 @@ class UserServiceTest {
                     .verifyComplete();
 
             // 6. Delete user
-            when(userRepository.deleteById(TEST_USER_ID)).thenReturn(Mono.empty());
+            when(userRepository.removeById(TEST_USER_ID)).thenReturn(Mono.just(1L));
             StepVerifier.create(userService.deleteById(TEST_USER_ID))
                     .verifyComplete();
 
             // Verify all interactions
-            // existsUserById dipanggil 3 kali:
-            // 1. Manual check pertama
-            // 2. Internal call dari saveUser
-            // 3. Manual check kedua
-            verify(userRepository, times(3)).existsUserById(TEST_USER_ID);
-            verify(userRepository, times(1)).insert(any(User.class));
+            verify(userRepository, times(2)).existsUserById(TEST_USER_ID);
+            verify(userRepository, times(1)).upsertAll(anyCollection());
             verify(userRepository, times(1)).findById(TEST_USER_ID);
             verify(userRepository, times(1)).count();
-            verify(userRepository, times(1)).deleteById(TEST_USER_ID);
+            verify(userRepository, times(1)).removeById(TEST_USER_ID);
         }
 
         @Test
         @DisplayName("Skenario - Tidak save user yang sudah ada")
-        void scenario_DoNotSaveDuplicateUser() throws InterruptedException {
-            // 1. User already exists
-            when(userRepository.existsUserById(TEST_USER_ID)).thenReturn(Mono.just(true));
+        void scenario_DoNotSaveDuplicateUser() {
+            // 1. User sudah dimuat ke seen-set saat startup
+            ReflectionTestUtils.setField(userService, "flushMs", 60_000L);
+            when(userRepository.findAllIds()).thenReturn(Flux.just(testUser));
+            userService.init();
+            userService.shutdown();
 
             // 2. Try to save user
             userService.saveUser(TEST_USER_ID);
-            Thread.sleep(100);
 
-            // 3. Verify insert was not called
-            verify(userRepository, times(1)).existsUserById(TEST_USER_ID);
-            verify(userRepository, never()).insert(any(User.class));
+            // 3. Verify nothing was written
+            StepVerifier.create(userService.flush())
+                    .expectNext(0)
+                    .verifyComplete();
+            verify(userRepository, never()).upsertAll(anyCollection());
+            verify(userRepository, never()).existsUserById(anyLong());
         }
 
         @Test
         @DisplayName("Skenario - Save multiple users dan count")
-        void scenario_SaveMultipleUsersAndCount() throws InterruptedException {
+        void scenario_SaveMultipleUsersAndCount() {
             // Arrange
             Long userId1 = 100L;
             Long userId2 = 200L;
             Long userId3 = 300L;
 
-            when(userRepository.existsUserById(anyLong())).thenReturn(Mono.just(false));
-            when(userRepository.insert(any(User.class)))
-                    .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+            when(userRepository.upsertAll(anyCollection())).thenReturn(Mono.just(3));
             when(userRepository.count()).thenReturn(Mono.just(3L));
 
             // Act - Save 3 users
             userService.saveUser(userId1);
             userService.saveUser(userId2);
             userService.saveUser(userId3);
-            Thread.sleep(200);
+            userService.flush().block();
 
             // Act & Assert - Count
             StepVerifier.create(userService.count())
                     .expectNext(3L)
                     .verifyComplete();
 
-            verify(userRepository, times(3)).existsUserById(anyLong());
-            verify(userRepository, times(3)).insert(any(User.class));
+            verify(userRepository, times(1)).upsertAll(anyCollection());
             verify(userRepository, times(1)).count();
         }
 
@@ -703,7 +742,7 @@ class UserServiceTest {
                     .expectNext(true)
                     .verifyComplete();
 
-            when(userRepository.deleteById(TEST_USER_ID)).thenReturn(Mono.empty());
+            when(userRepository.removeById(TEST_USER_ID)).thenReturn(Mono.just(1L));
             StepVerifier.create(userService.deleteById(TEST_USER_ID))
                     .verifyComplete();
 
@@ -715,17 +754,19 @@ class UserServiceTest {
 
             verify(userRepository, times(1)).findById(TEST_USER_ID);
             verify(userRepository, times(2)).existsUserById(TEST_USER_ID);
-            verify(userRepository, times(1)).deleteById(TEST_USER_ID);
+            verify(userRepository, times(1)).removeById(TEST_USER_ID);
         }
 
         @Test
         @DisplayName("Skenario - Error handling chain")
-        void scenario_ErrorHandlingChain() throws InterruptedException {
-            when(userRepository.existsUserById(TEST_USER_ID))
+        void scenario_ErrorHandlingChain() {
+            when(userRepository.upsertAll(anyCollection()))
                     .thenReturn(Mono.error(new RuntimeException("Connection lost")));
 
             userService.saveUser(TEST_USER_ID);
-            Thread.sleep(100);
+            StepVerifier.create(userService.flush())
+                    .expectNext(0)
+                    .verifyComplete();
 
             // 2. Try to find - should still work independently
             when(userRepository.findById(TEST_USER_ID)).thenReturn(Mono.just(testUser));
@@ -733,8 +774,7 @@ class UserServiceTest {
                     .expectNext(testUser)
                     .verifyComplete();
 
-            verify(userRepository, times(1)).existsUserById(TEST_USER_ID);
-            verify(userRepository, never()).insert(any(User.class));
+            verify(userRepository, times(1)).upsertAll(anyCollection());
             verify(userRepository, times(1)).findById(TEST_USER_ID);
         }
     }
@@ -0,0 +1,166 @@
+package com.yann.forcesub.service.telegram;
+
+import com.yann.forcesub.exceptions.NotValidFormatException;
+import it.tdlight.ClientFactory;
+import it.tdlight.Init;
+import it.tdlight.TelegramClient;
+import it.tdlight.jni.TdApi;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("HtmlTextFormatter Test")
+class HtmlTextFormatterTest {
+
+    @Nested
+    @DisplayName("Parse Tests")
+    class ParseTests {
+
+        @Test
+        @DisplayName("Should strip tags and produce entity with correct offset")
+        void shouldParseBold() {
+            TdApi.FormattedText result = HtmlTextFormatter.parse("Halo <b>dunia</b>!");
+
+            assertThat(result.text).isEqualTo("Halo dunia!");
+            assertThat(result.entities).hasSize(1);
+            assertThat(result.entities[0].offset).isEqualTo(5);
+            assertThat(result.entities[0].length).isEqualTo(5);
+            assertThat(result.entities[0].type).isInstanceOf(TdApi.TextEntityTypeBold.class);
+        }
+
+        @Test
+        @DisplayName("Should count offsets in UTF-16 code units")
+        void shouldUseUtf16Offsets() {
+            TdApi.FormattedText result = HtmlTextFormatter.parse("👥 <b>Anggota</b>");
+
+            assertThat(result.text).isEqualTo("👥 Anggota");
+            assertThat(result.entities[0].offset).isEqualTo(3);
+            assertThat(result.entities[0].length).isEqualTo(7);
+        }
+
+        @Test
+        @DisplayName("Should decode HTML entities")
+        void shouldDecodeEntities() {
+            TdApi.FormattedText result = HtmlTextFormatter.parse("<code>&lt;start&gt; &amp; &#65;</code> & sisanya");
+
+            assertThat(result.text).isEqualTo("<start> & A & sisanya");
+            assertThat(result.entities[0].length).isEqualTo(11);
+            assertThat(result.entities[0].type).isInstanceOf(TdApi.TextEntityTypeCode.class);
+        }
+
+        @Test
+        @DisplayName("Should parse link and expandable blockquote")
+        void shouldParseLinkAndBlockquote() {
+            TdApi.FormattedText result = HtmlTextFormatter.parse(
+                    "<blockquote expandable>Lihat <a href='https://t.me/b_yannnn'>Dev</a></blockquote>");
+
+            assertThat(result.text).isEqualTo("Lihat Dev");
+            assertThat(result.entities).hasSize(2);
+            assertThat(result.entities[0].type).isInstanceOf(TdApi.TextEntityTypeExpandableBlockQuote.class);
+            assertThat(result.entities[1].type).isInstanceOfSatisfying(TdApi.TextEntityTypeTextUrl.class,
+                    url -> assertThat(url.url).isEqualTo("https://t.me/b_yannnn"));
+        }
+
+        @Test
+        @DisplayName("Should reject unsupported or unbalanced markup")
+        void shouldRejectUnsupportedMarkup() {
+            assertThatThrownBy(() -> HtmlTextFormatter.parse("<marquee>x</marquee>"))
+                    .isInstanceOf(NotValidFormatException.class);
+            assertThatThrownBy(() -> HtmlTextFormatter.parse("<b>x</i>"))
+                    .isInstanceOf(NotValidFormatException.class);
+            assertThatThrownBy(() -> HtmlTextFormatter.parse("<b>x"))
+                    .isInstanceOf(NotValidFormatException.class);
+        }
+
+        @Test
+        @DisplayName("Should return cached instance for the same text")
+        void shouldCacheFormattedText() {
+            HtmlTextFormatter formatter = new HtmlTextFormatter();
+
+            assertThat(formatter.format("<b>x</b>")).isSameAs(formatter.format("<b>x</b>"));
+        }
+
+        @Test
+        @DisplayName("Should keep recently used text when the cache is full")
+        void shouldEvictLeastRecentlyUsed() {
+            HtmlTextFormatter formatter = new HtmlTextFormatter();
+            TdApi.FormattedText template = formatter.format("<b>template</b>");
+
+            for (int i = 0; i < 2000; i++) {
+                formatter.format("<i>" + i + "</i>");
+                if (i % 100 == 0) {
+                    formatter.format("<b>template</b>");
+                }
+            }
+
+            assertThat(formatter.format("<b>template</b>")).isSameAs(template);
+        }
+    }
+
+    @Nested
+    @DisplayName("TDLib Parity Tests")
+    class ParityTests {
+
+        private static TelegramClient tdlib;
+
+        @BeforeAll
+        static void initTdlib() {
+            try {
+                Init.init();
+                tdlib = ClientFactory.create().createClient();
+            } catch (Throwable e) {
+                tdlib = null;
+            }
+        }
+
+        @TestFactory
+        @DisplayName("Should match TDLib ParseTextEntities on i18n strings")
+        Stream<DynamicTest> shouldMatchTdlib() throws IOException {
+            assumeTrue(tdlib != null, "TDLib native library not available");
+
+            Properties messages = new Properties();
+            try (InputStream in = getClass().getResourceAsStream("/i18n/messages_en.properties")) {
+                messages.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+
+            return messages.stringPropertyNames().stream()
+                    .sorted()
+                    .map(key -> DynamicTest.dynamicTest(key, () -> {
+                        String html = messages.getProperty(key);
+                        TdApi.Object expected = tdlib.execute(new TdApi.ParseTextEntities(html, new TdApi.TextParseModeHTML()));
+                        assertThat(expected).isInstanceOf(TdApi.FormattedText.class);
+
+                        TdApi.FormattedText local = HtmlTextFormatter.parse(html);
+                        TdApi.FormattedText remote = (TdApi.FormattedText) expected;
+                        assertThat(local.text).isEqualTo(remote.text);
+                        assertThat(describe(local.entities)).isEqualTo(describe(remote.entities));
+                    }));
+        }
+
+        private static List<String> describe(TdApi.TextEntity[] entities) {
+            return Arrays.stream(entities)
+                    .sorted(Comparator.comparingInt((TdApi.TextEntity e) -> e.offset)
+                            .thenComparing(e -> -e.length)
+                            .thenComparing(e -> e.type.getClass().getSimpleName()))
+                    .map(e -> e.offset + ":" + e.length + ":" + e.type)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.yann.forcesub.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HyperLogLog Test")
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Should estimate cardinality within a few percent")
+    void shouldEstimateCardinality() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (long id = 1; id <= 100_000; id++) {
+            sketch.add(Hashing.mix64(id));
+            sketch.add(Hashing.mix64(id));
+        }
+
+        assertEquals(100_000, sketch.count(), 100_000 * 0.03);
+    }
+
+    @Test
+    @DisplayName("Should count small sets exactly enough with linear counting")
+    void shouldCountSmallSets() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        assertEquals(0, sketch.count());
+        for (long id = 1; id <= 10; id++) {
+            sketch.add(Hashing.mix64(id));
+        }
+
+        assertEquals(10, sketch.count());
+    }
+
+    @Test
+    @DisplayName("Should estimate union after merge")
+    void shouldEstimateUnionAfterMerge() {
+        HyperLogLog first = new HyperLogLog(14);
+        HyperLogLog second = new HyperLogLog(14);
+        for (long id = 0; id < 50_000; id++) {
+            first.add(Hashing.mix64(id));
+            second.add(Hashing.mix64(id + 25_000));
+        }
+
+        first.merge(second);
+
+        assertEquals(75_000, first.count(), 75_000 * 0.03);
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    @DisplayName("Should survive serialization")
+    void shouldSurviveSerialization() throws IOException {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (long id = 0; id < 5_000; id++) {
+            sketch.add(Hashing.mix64(id));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        HyperLogLog restored = HyperLogLog.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(12, restored.precision());
+        assertEquals(sketch.count(), restored.count());
+    }
+}
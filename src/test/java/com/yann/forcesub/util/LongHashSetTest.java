@@ -0,0 +1,63 @@
+package com.yann.forcesub.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LongHashSet Test")
+class LongHashSetTest {
+
+    @Test
+    @DisplayName("Should add values once and report membership")
+    void shouldAddAndContain() {
+        LongHashSet set = new LongHashSet(16);
+
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.add(-42));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.add(Long.MAX_VALUE));
+
+        assertTrue(set.contains(42));
+        assertTrue(set.contains(-42));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertFalse(set.contains(43));
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    @DisplayName("Should store zero separately from empty slots")
+    void shouldHandleZeroSentinel() {
+        LongHashSet set = new LongHashSet(8);
+
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+
+        for (long value = 1; value <= 100; value++) {
+            set.add(value);
+        }
+        assertTrue(set.contains(0));
+        assertEquals(101, set.size());
+    }
+
+    @Test
+    @DisplayName("Should keep every value across resizes")
+    void shouldKeepValuesAcrossResize() {
+        LongHashSet set = new LongHashSet(8);
+        for (long id = 1; id <= 100_000; id++) {
+            assertTrue(set.add(Hashing.mix64(id)));
+        }
+
+        assertEquals(100_000, set.size());
+        for (long id = 1; id <= 100_000; id++) {
+            assertTrue(set.contains(Hashing.mix64(id)));
+            assertFalse(set.add(Hashing.mix64(id)));
+        }
+        assertFalse(set.contains(Hashing.mix64(100_001)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.yann.forcesub.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MPSC Ring Test")
+class MpscRingTest {
+
+    @Test
+    @DisplayName("Should drain in claim order and reject when full")
+    void shouldDrainInOrderAndRejectWhenFull() {
+        MpscRing<Integer> ring = new MpscRing<>(4);
+        for (int i = 0; i < ring.capacity(); i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(99));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, ring.drain(drained::add, 2));
+        assertTrue(ring.offer(4));
+        ring.drain(drained::add, 10);
+
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    @DisplayName("Should not lose items from concurrent producers")
+    void shouldNotLoseItemsFromConcurrentProducers() throws InterruptedException {
+        MpscRing<Integer> ring = new MpscRing<>(1024);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        while (done.getCount() > 0 || ring.size() > 0) {
+            ring.drain(item -> assertTrue(seen.add(item)), 256);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(producers * perProducer, seen.size());
+    }
+}
@@ -0,0 +1,75 @@
+package com.yann.forcesub.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ScalableBloomFilter Test")
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report a false negative while growing slices")
+    void shouldHaveNoFalseNegativesAcrossGrowth() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        long initialBytes = filter.sizeInBytes();
+        for (long id = 0; id < 50_000; id++) {
+            filter.add(Hashing.mix64(id));
+        }
+
+        assertTrue(filter.sizeInBytes() > initialBytes);
+        for (long id = 0; id < 50_000; id++) {
+            assertTrue(filter.mightContain(Hashing.mix64(id)), "false negative for " + id);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the false-positive rate under the configured bound")
+    void shouldKeepFalsePositiveRateBounded() {
+        double falsePositive = 0.01;
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, falsePositive);
+        for (long id = 0; id < 50_000; id++) {
+            filter.add(Hashing.mix64(id));
+        }
+
+        int probes = 200_000;
+        int hits = 0;
+        for (long id = 1_000_000; id < 1_000_000 + probes; id++) {
+            if (filter.mightContain(Hashing.mix64(id))) hits++;
+        }
+
+        assertTrue((double) hits / probes < 2 * falsePositive, "false-positive rate " + (double) hits / probes);
+    }
+
+    @Test
+    @DisplayName("Should survive serialization")
+    void shouldSurviveSerialization() throws IOException {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (long id = 0; id < 1_000; id++) {
+            filter.add(Hashing.mix64(id));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+        ScalableBloomFilter restored = ScalableBloomFilter.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(filter.count(), restored.count());
+        assertEquals(filter.sizeInBytes(), restored.sizeInBytes());
+        for (long id = 0; id < 1_000; id++) {
+            assertTrue(restored.mightContain(Hashing.mix64(id)));
+        }
+        for (long id = 1_000_000; id < 1_010_000; id++) {
+            assertEquals(filter.mightContain(Hashing.mix64(id)), restored.mightContain(Hashing.mix64(id)));
+        }
+
+        restored.add(Hashing.mix64(-1));
+        assertTrue(restored.mightContain(Hashing.mix64(-1)));
+    }
+}